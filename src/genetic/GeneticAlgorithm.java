@@ -6,21 +6,21 @@ import hmo.Evaluator;
 import hmo.instance.SolutionInstance;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /** Maximizes given function. */
 public class GeneticAlgorithm<T> {
 
-    private final int ONE_MINUTE = 1 * 60 * 1000;
-    private final int FIVE_MINUTES = 5 * 60 * 1000;
-    private final int TEN_MINUTES = 10 * 60 * 1000;
-    private final int ITERATION_WITHOUT_IMPROVEMENT_LIMIT = 20000;
+    private static final int FIVE_MINUTES = 5 * 60 * 1000;
+    private static final int ITERATION_WITHOUT_IMPROVEMENT_LIMIT = 20000;
+    // mutations applied to an archive unit which is carried into a restarted population
+    private static final int PERTURBATION_STEPS = 3;
 
   public static class UnitGenerator<T> {
     private final Supplier<T> supplier;
@@ -34,6 +34,10 @@ public class GeneticAlgorithm<T> {
           .mapToObj(i -> new Unit<>(supplier.get()))
           .collect(Collectors.toList());
     }
+
+    T get() {
+      return supplier.get();
+    }
   }
 
   public interface FitnessEvaluator<T> extends Function<T, Double> {
@@ -54,29 +58,63 @@ public class GeneticAlgorithm<T> {
     }
   }
 
-  public interface Mutator<T> extends Function<T, T> {
-    default Unit<T> apply(Unit<T> unit) {
-      return new Unit<>(apply(unit.value));
+  /** Must only draw random numbers from the given random. */
+  public interface Mutator<T> {
+    T apply(T value, Random random);
+
+    default Unit<T> apply(Unit<T> unit, Random random) {
+      return new Unit<>(apply(unit.value, random));
     }
   }
 
-  public interface Combinator<T> extends BiFunction<T, T, T> {
-    default Unit<T> apply(Unit<T> a, Unit<T> b) {
-      return new Unit<>(apply(a.value, b.value));
+  /** Must only draw random numbers from the given random. */
+  public interface Combinator<T> {
+    T apply(T a, T b, Random random);
+
+    default Unit<T> apply(Unit<T> a, Unit<T> b, Random random) {
+      return new Unit<>(apply(a.value, b.value, random));
     }
   }
 
+  private UnitGenerator<T> unitGenerator;
   private PopulationInfo populationInfo;
   private IterationBounds iterationBounds;
   private FitnessEvaluator<T> fitnessEvaluator;
-  private List<UnitAndFitness<T>> population;
+  // current generation, and the buffer the next one is built in
+  private Population<T> population;
+  private Population<T> next;
+  // scratch space for indices of the fittest units
+  private int[] top = new int[0];
   private Combinator<T> crossover;
   private Mutator<T> mutator;
   private Random random;
+  // null to produce offspring on the calling thread
+  private ForkJoinPool offspringPool;
   private Logger logger;
 
+  // island model, null if the algorithm runs on its own
+  private Islands<T> islands;
+  private int island;
+
+  // when to stop iterating, see stopWhen
+  private Termination termination;
+  private long evaluations;
+
+  // shared best solution to publish to, null if there is none
+  private Incumbent<T> incumbent;
+  private String source;
+
+  // restarts on stagnation, null if the algorithm never restarts
+  private RestartInfo restartInfo;
+  // draws a greedy solution from the given random, null if there is none
+  private Function<Random, T> greedy;
+  // fittest distinct units seen at any restart
+  private Population<T> archive;
+
   private BayesValue bayesHi;
   private BayesValue bayesLo;
+  // seeded from the run's random, so that the samples do not shift its other draws
+  private Random bayesRandom;
   private final PopulationInfo initialPopulation;
 
   private LinearRegression regressionLo = null;
@@ -91,19 +129,114 @@ public class GeneticAlgorithm<T> {
       Mutator<T> mutator,
       Random random,
       Logger logger) {
+    this(unitGenerator, populationInfo, iterationBounds, fitnessEvaluator, crossover, mutator,
+        random, null, logger);
+  }
+
+  /**
+   * @param offspringPool pool on which the offspring of a generation are produced and evaluated
+   *     in parallel, or null to produce them on the calling thread. Either way, the same random
+   *     gives the same populations.
+   */
+  public GeneticAlgorithm(
+      UnitGenerator<T> unitGenerator,
+      PopulationInfo populationInfo,
+      IterationBounds iterationBounds,
+      FitnessEvaluator<T> fitnessEvaluator,
+      Combinator<T> crossover,
+      Mutator<T> mutator,
+      Random random,
+      ForkJoinPool offspringPool,
+      Logger logger) {
+    this.unitGenerator = unitGenerator;
+    this.offspringPool = offspringPool;
     this.populationInfo = populationInfo;
     this.iterationBounds = iterationBounds;
     this.fitnessEvaluator = fitnessEvaluator;
     this.crossover = crossover;
     this.mutator = mutator;
     this.random = random;
-    this.population = sortedByDescendingFitness(unitGenerator.init(populationInfo.size).stream()
-        .map(unit -> new UnitAndFitness<>(unit, fitnessEvaluator.apply(unit.value))));
+    this.population = new Population<>(populationInfo.size);
+    this.next = new Population<>(populationInfo.size);
+    for (Unit<T> unit : unitGenerator.init(populationInfo.size)) {
+      population.add(unit.value, fitnessEvaluator.apply(unit.value));
+    }
+    this.evaluations = population.size();
+    this.termination = defaultTermination(iterationBounds);
     this.logger = logger;
     this.initialPopulation = new PopulationInfo(populationInfo);
 
-    this.bayesLo = new BayesValue(0.05, 0.05);
-    this.bayesHi = new BayesValue(0.15, 0.05);
+    this.bayesRandom = new Random(random.nextLong());
+    this.bayesLo = new BayesValue(0.05, 0.05, bayesRandom);
+    this.bayesHi = new BayesValue(0.15, 0.05, bayesRandom);
+  }
+
+  /** Makes this algorithm the given island, exchanging units with the other ones. */
+  public void joinIslands(Islands<T> islands, int island) {
+    this.islands = islands;
+    this.island = island;
+  }
+
+  /**
+   * Five minutes, the number of iterations of the iteration bounds if positive, or {@value
+   * #ITERATION_WITHOUT_IMPROVEMENT_LIMIT} generations without the best fitness improving by more
+   * than their delta threshold, whichever comes first.
+   */
+  static Termination defaultTermination(IterationBounds iterationBounds) {
+    Termination timeOrStagnation = Termination.anyOf(
+        Termination.time(FIVE_MINUTES),
+        Termination.stagnation(
+            ITERATION_WITHOUT_IMPROVEMENT_LIMIT, iterationBounds.getDeltaThreshold()));
+    return iterationBounds.getNumIterations() > 0
+        ? Termination.anyOf(
+            timeOrStagnation, Termination.generations(iterationBounds.getNumIterations()))
+        : timeOrStagnation;
+  }
+
+  /**
+   * Replaces the {@link #defaultTermination default termination}. The run also stops when its
+   * thread is interrupted.
+   *
+   * @throws IllegalArgumentException if the termination only measures the CPU time of the
+   *     calling thread, while offspring are produced on a pool
+   */
+  public void stopWhen(Termination termination) {
+    if (offspringPool != null && termination.isPerThread()) {
+      throw new IllegalArgumentException(
+          "Thread CPU time does not bound a run which produces offspring on a pool.");
+    }
+    this.termination = termination;
+  }
+
+  /**
+   * Makes this algorithm restart once it stagnates. The fittest units are kept in an archive,
+   * which seeds every restarted population along with mutated archive units, greedy solutions and
+   * fresh units from the unit generator. The restart also resets the mutation and crossover
+   * probabilities, and grows the population if the restart info says so.
+   *
+   * @param greedy draws a greedy solution from the given random, may be null; must be safe to
+   *     call from several threads if offspring are produced in parallel
+   */
+  public void restartOn(RestartInfo restartInfo, Function<Random, T> greedy) {
+    this.restartInfo = restartInfo;
+    this.greedy = greedy;
+    this.archive = new Population<>(restartInfo.archiveSize);
+  }
+
+  /** @return the current generation. */
+  Population<T> population() {
+    return population;
+  }
+
+  /** @return fittest distinct units seen at any restart, or null without restarts. */
+  Population<T> archive() {
+    return archive;
+  }
+
+  /** Makes this algorithm publish the best unit of every generation to the incumbent. */
+  public void publishTo(Incumbent<T> incumbent, String source) {
+    this.incumbent = incumbent;
+    this.source = source;
   }
 
   private List<Double> deltas = new ArrayList<>();
@@ -117,27 +250,34 @@ public class GeneticAlgorithm<T> {
 
     int iterations = 0;
     int lastImprovementIteration = 0;
+    // unlike the above, not reset when the bayesian values are
+    int lastBestImprovement = 0;
+    int lastRestart = 0;
       //double lastImprovement = 0.;
     UnitAndFitness<T> best = new UnitAndFitness<>(new Unit<>(null), 0.0);
 
-    double oldPopulationValues =
-        population.stream()
-        .mapToDouble(UnitAndFitness::getFitness)
-        .filter(Double::isFinite)
-        .sum();
+    double oldPopulationValues = population.finiteSum();
 
     double loSample = bayesLo.sample();
     double hiSample = bayesHi.sample();
-      //while (!iterationBounds.timeRanOut(ONE_MINUTE)) {
-      //while(((iterations - lastImprovementIteration) <= ITERATION_WITHOUT_IMPROVEMENT_LIMIT) && (lastImprovement == 0 || lastImprovement > 1)) {
-      while (!iterationBounds.timeRanOut(FIVE_MINUTES)) {
+      termination.start();
+      // an interrupt, e.g. from cancelling the run, stops it after the current generation
+      while (!termination.isComplete(
+          iterations, evaluations, best.getFitness(), lastBestImprovement)
+          && !Thread.currentThread().isInterrupted()) {
           iterations++;
       double oldPopulationDelta = deltaBestWorst();
 
-      population = evolve(population);
-      double currentPopulationValues =
-          population.stream().mapToDouble(UnitAndFitness::getFitness)
-              .filter(Double::isFinite).sum();
+      evolve();
+      if (islands != null && islands.shouldMigrate(iterations)) {
+        migrate();
+      }
+      if (incumbent != null) {
+        // units are never modified once evaluated, so they can be published as they are
+        incumbent.offer(population.value(population.best()),
+            population.fitness(population.best()), source);
+      }
+      double currentPopulationValues = population.finiteSum();
       if (currentPopulationValues > oldPopulationValues) {
         if (regressionLo == null) {
           lastImprovementIteration = iterations;
@@ -158,8 +298,9 @@ public class GeneticAlgorithm<T> {
       if (iterations - 1000 > lastImprovementIteration) {
         double lo = bayesLo.sample();
         double up = bayesHi.sample();
-        bayesLo = new BayesValue((lo + bayesLo.getMean0()) / 2, (lo + bayesLo.getMean0()) / 2);
-        bayesHi = new BayesValue((up + bayesHi.getMean0()) / 2, (lo + up) / 2);
+        bayesLo = new BayesValue(
+            (lo + bayesLo.getMean0()) / 2, (lo + bayesLo.getMean0()) / 2, bayesRandom);
+        bayesHi = new BayesValue((up + bayesHi.getMean0()) / 2, (lo + up) / 2, bayesRandom);
         regressionLo = null;
         regressionHi = null;
         lastImprovementIteration = iterations;
@@ -185,12 +326,13 @@ public class GeneticAlgorithm<T> {
       }
 
       oldPopulationValues = currentPopulationValues;
-      double currentBest = population.get(0).getFitness();
+      double currentBest = population.fitness(population.best());
 
       if (currentBest > best.getFitness()) {
           //lastImprovement = currentBest - best.getFitness();
-        best = population.get(0);
+        best = population.get(population.best());
         lastImprovementIteration = iterations;
+        lastBestImprovement = iterations;
       }
 
       // TODO test this with different parameters, because it seems to work fairly well.
@@ -213,10 +355,39 @@ public class GeneticAlgorithm<T> {
             "Completed %s steps. Best fitness: %s (%.4f)", iterations, best.getFitness(),
             new Evaluator((SolutionInstance) best.getUnit().getValue()).totalGoal()));
       }
+
+      if (restartInfo != null
+          && iterations - Math.max(lastBestImprovement, lastRestart) >= restartInfo.stagnation) {
+        restart(iterations - lastBestImprovement);
+        lastRestart = iterations;
+        // a restarted population is not comparable to the one before it
+        oldPopulationValues = population.finiteSum();
+      }
+    }
+
+    logger.info(String.format("Finishing with %s iterations.", iterations));
+    return population.get(population.best());
+  }
+
+  /**
+   * Sends the top units to the target islands and merges in the units received from the other
+   * islands, which replace the least fit units if they are fitter.
+   */
+  private void migrate() {
+    int n = fittest(islands.migrants());
+    List<UnitAndFitness<T>> emigrants = new ArrayList<>(n);
+    for (int k = 0; k < n; k++) {
+      emigrants.add(population.get(top[k]));
     }
+    islands.send(island, emigrants, random);
 
-    logger.info(String.format("Finishing with %s iterations.", iterations - 1));
-    return population.get(0);
+    for (UnitAndFitness<T> immigrant : islands.receive(island)) {
+      int worst = population.worst();
+      if (immigrant.getFitness() > population.fitness(worst)
+          || Double.isNaN(population.fitness(worst))) {
+        population.replace(worst, immigrant.getUnit().getValue(), immigrant.getFitness());
+      }
+    }
   }
 
   private void deltaAdjustment(double lowerBound, double upperBound) {
@@ -238,84 +409,167 @@ public class GeneticAlgorithm<T> {
   }
 
   private double deltaBestWorst() {
-    double normalization = population.stream().mapToDouble(UnitAndFitness::getFitness).sum();
-    return (population.get(0).getFitness() - population.get(population.size() - 1).getFitness())
-        / normalization;
+    return (population.fitness(population.best()) - population.fitness(population.worst()))
+        / population.sum();
   }
 
-  private List<UnitAndFitness<T>> evolve(List<UnitAndFitness<T>> population) {
-    List<UnitAndFitness<T>> newPopulation = topN(population, populationInfo.elitism);
-    double mutate = populationInfo.mutationProbability;
-
-    while (newPopulation.size() < populationInfo.size) {
-      Unit<T> child;
-      if (shouldPerformAction(populationInfo.crossoverProbability)) {
-        Pair<Unit<T>, Unit<T>> parents = selectParents(population);
-        child = crossover.apply(parents.first, parents.second);
-      } else {
-        child = population.get(random.nextInt(population.size())).getUnit();
-      }
+  /** Builds the next generation in the spare buffer, which then becomes the current one. */
+  private void evolve() {
+    next.clear();
+    next.ensureCapacity(populationInfo.size);
+    int nElite = fittest(populationInfo.elitism);
+    for (int k = 0; k < nElite; k++) {
+      next.add(population.value(top[k]), population.fitness(top[k]));
+    }
+    int offset = next.size();
+    int nChildren = Math.max(0, populationInfo.size - offset);
+
+    // everything drawn from the shared random is drawn here, in child order, so that the
+    // children do not depend on which thread produces them or when
+    long[] seeds = new long[nChildren];
+    double[] mutate = new double[nChildren];
+    double mutateProbability = populationInfo.mutationProbability;
+    for (int i = 0; i < nChildren; i++) {
+      seeds[i] = random.nextLong();
+      mutate[i] = mutateProbability;
+      // TODO this also seems to work well, but try without it.
+      mutateProbability = Math.min(1.0, mutateProbability * 1.1);
+    }
+    double crossoverProbability = populationInfo.crossoverProbability;
+    Selection selection = Selection.of(populationInfo, population.fitness(), population.size());
+
+    // child i goes to index offset + i whichever thread produces it
+    forEachChild(nChildren, i -> offspring(
+        offset + i, selection, crossoverProbability, mutate[i], new Random(seeds[i])));
+    next.extendTo(offset + nChildren);
+    evaluations += nChildren;
+    swap();
+  }
 
-      if (shouldPerformAction(mutate)) {
-        child = mutator.apply(child);
+  /**
+   * Builds a new population in the spare buffer from the archive, to which the fittest units of
+   * the current population are added first, and from new units.
+   */
+  private void restart(int generationsWithoutImprovement) {
+    // the whole ranking, since the fittest units may well be copies of each other
+    int nFittest = fittest(population.size());
+    for (int k = 0; k < nFittest; k++) {
+      if (archive.size() == restartInfo.archiveSize && (archive.size() == 0
+          || !(population.fitness(top[k]) > archive.fitness(archive.worst())))) {
+        break;
       }
-
-      double currentFitness = fitnessEvaluator.apply(child.value);
-      newPopulation.add(new UnitAndFitness<>(child, currentFitness));
-
-      // TODO this also seems to work well, but try without it.
-      mutate = Math.min(1.0, mutate * 1.1);
+      archive(population.value(top[k]), population.fitness(top[k]));
     }
 
-    return sortedByDescendingFitness(newPopulation);
+    int size = Math.max(populationInfo.size, (int) Math.min(restartInfo.maxSize,
+        Math.ceil(populationInfo.size * restartInfo.growth)));
+    logger.info(String.format(
+        "Restarting after %s generations without improvement, population size %s -> %s.",
+        generationsWithoutImprovement, populationInfo.size, size));
+    populationInfo.size = size;
+    populationInfo.mutationProbability = initialPopulation.mutationProbability;
+    populationInfo.crossoverProbability = initialPopulation.crossoverProbability;
+
+    next.clear();
+    next.ensureCapacity(size);
+    for (int k = 0; k < archive.size() && next.size() < size; k++) {
+      next.add(archive.value(k), archive.fitness(k));
+    }
+    int offset = next.size();
+    int nNew = size - offset;
+
+    // as in evolve, everything drawn from the shared random is drawn here, in unit order
+    long[] seeds = new long[nNew];
+    double[] kind = new double[nNew];
+    for (int i = 0; i < nNew; i++) {
+      seeds[i] = random.nextLong();
+      kind[i] = random.nextDouble();
+    }
+    forEachChild(nNew, i -> {
+      T unit = newUnit(kind[i], new Random(seeds[i]));
+      next.set(offset + i, unit, fitnessEvaluator.apply(unit));
+    });
+    next.extendTo(size);
+    evaluations += nNew;
+    swap();
   }
 
-  boolean shouldPerformAction(double percentage) {
-    return random.nextDouble() <= percentage;
+  /** @return a mutated archive unit, a greedy solution or a fresh unit, depending on kind. */
+  private T newUnit(double kind, Random random) {
+    if (kind < restartInfo.perturbedShare && archive.size() > 0) {
+      T unit = archive.value(random.nextInt(archive.size()));
+      for (int step = 0; step < PERTURBATION_STEPS; step++) {
+        unit = mutator.apply(unit, random);
+      }
+      return unit;
+    }
+    if (kind < restartInfo.perturbedShare + restartInfo.greedyShare && greedy != null) {
+      return greedy.apply(random);
+    }
+    return unitGenerator.get();
   }
 
-  private List<UnitAndFitness<T>> sortedByDescendingFitness(List<UnitAndFitness<T>> list) {
-    return sortedByDescendingFitness(list.stream());
+  /** Adds a unit to the archive if it is not there yet and is fitter than its least fit unit. */
+  private void archive(T value, double fitness) {
+    if (Double.isNaN(fitness)) {
+      return;
+    }
+    for (int k = 0; k < archive.size(); k++) {
+      if (archive.value(k).equals(value)) {
+        return;
+      }
+    }
+    if (archive.size() < restartInfo.archiveSize) {
+      archive.add(value, fitness);
+    } else if (archive.size() > 0 && fitness > archive.fitness(archive.worst())) {
+      archive.replace(archive.worst(), value, fitness);
+    }
   }
 
-  private List<UnitAndFitness<T>> sortedByDescendingFitness(Stream<UnitAndFitness<T>> stream) {
-    return stream
-        .sorted(Comparator.comparingDouble(UnitAndFitness<T>::getFitness).reversed())
-        .collect(Collectors.toList());
+  /** Runs the given action for 0 to n - 1, in parallel on the offspring pool if there is one. */
+  private void forEachChild(int n, IntConsumer action) {
+    if (offspringPool == null) {
+      IntStream.range(0, n).forEach(action);
+    } else {
+      offspringPool.submit(() -> IntStream.range(0, n).parallel().forEach(action)).join();
+    }
   }
 
-  private List<UnitAndFitness<T>> topN(List<UnitAndFitness<T>> population, int elitism) {
-    return population.stream().limit(elitism).collect(Collectors.toList());
+  /** Makes the spare buffer, which has just been filled, the current generation. */
+  private void swap() {
+    Population<T> previous = population;
+    population = next;
+    next = previous;
   }
 
-  private Pair<Unit<T>, Unit<T>> selectParents(List<UnitAndFitness<T>> units) {
-    double first = random.nextDouble();
-    double second = random.nextDouble();
-    double totalFitness = units.stream().map(AbstractMap.SimpleImmutableEntry::getValue)
-        .reduce((a, b) -> a + b).get();
-
-    List<Unit<T>> parents = new ArrayList<>();
-    double prevFitness = 0;
-    for (UnitAndFitness<T> unitAndFitness : units) {
-      double fitness = unitAndFitness.getFitness() / totalFitness + prevFitness;
-
-      if (first <= fitness && first >= prevFitness) {
-        parents.add(unitAndFitness.getUnit());
-      }
-
-      if (second <= fitness && second >= prevFitness) {
-        parents.add(unitAndFitness.getUnit());
-      }
+  /** Produces a single evaluated child into the given index of the next generation. */
+  private void offspring(int index, Selection selection, double crossoverProbability,
+      double mutate, Random random) {
+    T child;
+    if (shouldPerformAction(crossoverProbability, random)) {
+      child = crossover.apply(population.value(selection.select(random)),
+          population.value(selection.select(random)), random);
+    } else {
+      child = population.value(random.nextInt(population.size()));
+    }
 
-      prevFitness = fitness;
+    if (shouldPerformAction(mutate, random)) {
+      child = mutator.apply(child, random);
     }
 
-    // e.g. if fitness values are NaN
-    while (parents.size() < 2) {
-      parents.add(units.get(random.nextInt(units.size())).getUnit());
+    next.set(index, child, fitnessEvaluator.apply(child));
+  }
+
+  /** @return number of the fittest units, at most k, written to the start of top. */
+  private int fittest(int k) {
+    if (top.length < k) {
+      top = new int[k];
     }
+    return population.top(k, top);
+  }
 
-    return new Pair<>(parents.get(0), parents.get(1));
+  static boolean shouldPerformAction(double percentage, Random random) {
+    return random.nextDouble() <= percentage;
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.MigrationInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Exchange of units between the islands of an island model, each island being a {@link
+ * GeneticAlgorithm} running on its own thread.
+ *
+ * <p>Every island has a lock-free inbox. Sending only appends to the inboxes of the target
+ * islands and receiving only drains the own inbox, so neither ever waits for another island. An
+ * island which falls behind simply finds more units in its inbox; only the most recent ones are
+ * kept, so that its inbox does not grow without bound.
+ */
+public class Islands<T> {
+
+  private final MigrationInfo migrationInfo;
+  private final List<Queue<UnitAndFitness<T>>> inboxes;
+  private final int capacity;
+
+  public Islands(MigrationInfo migrationInfo, int nIslands) {
+    this.migrationInfo = migrationInfo;
+    this.inboxes = new ArrayList<>(nIslands);
+    for (int i = 0; i < nIslands; i++) {
+      inboxes.add(new ConcurrentLinkedQueue<>());
+    }
+    // enough for one migration from every other island
+    this.capacity = Math.max(1, migrationInfo.migrants * (nIslands - 1));
+  }
+
+  public int size() {
+    return inboxes.size();
+  }
+
+  /** @return whether the island migrates after the given generation. */
+  boolean shouldMigrate(int generation) {
+    return migrationInfo.interval > 0 && generation % migrationInfo.interval == 0;
+  }
+
+  int migrants() {
+    return migrationInfo.migrants;
+  }
+
+  /** Sends units of the island to its targets in the topology. Never blocks. */
+  void send(int island, List<UnitAndFitness<T>> units, Random random) {
+    int n = inboxes.size();
+    if (n < 2) {
+      return;
+    }
+
+    switch (migrationInfo.topology) {
+      case RING:
+        deliver((island + 1) % n, units);
+        break;
+      case FULL:
+        for (int target = 0; target < n; target++) {
+          if (target != island) {
+            deliver(target, units);
+          }
+        }
+        break;
+      case RANDOM:
+      default:
+        // any island but the sender
+        int target = random.nextInt(n - 1);
+        deliver(target >= island ? target + 1 : target, units);
+    }
+  }
+
+  /** @return units sent to the island since the last call. Never blocks. */
+  List<UnitAndFitness<T>> receive(int island) {
+    Queue<UnitAndFitness<T>> inbox = inboxes.get(island);
+    List<UnitAndFitness<T>> units = new ArrayList<>();
+    UnitAndFitness<T> unit;
+    while ((unit = inbox.poll()) != null) {
+      units.add(unit);
+    }
+    return units;
+  }
+
+  private void deliver(int target, List<UnitAndFitness<T>> units) {
+    Queue<UnitAndFitness<T>> inbox = inboxes.get(target);
+    inbox.addAll(units);
+    // drop the oldest units if the target has not kept up; size() is fine for short queues
+    while (inbox.size() > capacity) {
+      inbox.poll();
+    }
+  }
+}
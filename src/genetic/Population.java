@@ -0,0 +1,223 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.Unit;
+import java.util.Arrays;
+
+/**
+ * Units of a generation and their fitness, as parallel arrays which are reused from one
+ * generation to the next. Units are kept in insertion order, not sorted; the fittest and least
+ * fit units and the sums of the fitness values are kept up to date as units are added.
+ *
+ * <p>Units are compared by fitness, with NaN as the worst fitness and ties going to the unit
+ * added first.
+ */
+final class Population<T> {
+
+  private Object[] values;
+  private double[] fitness;
+  private int size;
+
+  private int best;
+  private int worst;
+  private double sum;
+  private double finiteSum;
+
+  // scratch space of top
+  private int[] heap = new int[0];
+
+  Population(int capacity) {
+    this.values = new Object[capacity];
+    this.fitness = new double[capacity];
+    clear();
+  }
+
+  void clear() {
+    // drops the references, so that old units can be collected
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+    best = -1;
+    worst = -1;
+    sum = 0;
+    finiteSum = 0;
+  }
+
+  void add(T value, double fitness) {
+    ensureCapacity(size + 1);
+    set(size, value, fitness);
+    extendTo(size + 1);
+  }
+
+  /**
+   * Writes a unit without counting it in yet, which is safe for distinct indices from several
+   * threads once the arrays are large enough. Followed by {@link #extendTo}.
+   */
+  void set(int i, T value, double fitness) {
+    values[i] = value;
+    this.fitness[i] = fitness;
+  }
+
+  /** Makes sure units up to the given size can be {@link #set}. */
+  void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      int newLength = Math.max(capacity, 2 * values.length);
+      values = Arrays.copyOf(values, newLength);
+      fitness = Arrays.copyOf(fitness, newLength);
+    }
+  }
+
+  /** Counts in the units which were {@link #set} from the current size up to the new one. */
+  void extendTo(int newSize) {
+    ensureCapacity(newSize);
+    for (int i = size; i < newSize; i++) {
+      count(i);
+    }
+    size = newSize;
+  }
+
+  /** Replaces unit i, e.g. the least fit one, with another unit. Takes O(n) time. */
+  void replace(int i, T value, double fitness) {
+    set(i, value, fitness);
+    // recounted from scratch, since the fittest or least fit unit may have been replaced
+    int n = size;
+    size = 0;
+    best = -1;
+    worst = -1;
+    sum = 0;
+    finiteSum = 0;
+    extendTo(n);
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  T value(int i) {
+    return (T) values[i];
+  }
+
+  double fitness(int i) {
+    return fitness[i];
+  }
+
+  /** @return fitness of all units; only the first {@link #size()} ones are meaningful. */
+  double[] fitness() {
+    return fitness;
+  }
+
+  /** @return index of the fittest unit, or -1 if empty. */
+  int best() {
+    return best;
+  }
+
+  /** @return index of the least fit unit, or -1 if empty. */
+  int worst() {
+    return worst;
+  }
+
+  double sum() {
+    return sum;
+  }
+
+  /** @return sum of the fitness values which are finite. */
+  double finiteSum() {
+    return finiteSum;
+  }
+
+  UnitAndFitness<T> get(int i) {
+    return new UnitAndFitness<>(new Unit<>(value(i)), fitness[i]);
+  }
+
+  /**
+   * @return number of the fittest units written to the start of indices, fittest first, which is
+   *     at most k. Takes O(n log k) time, using a min-heap of the k fittest units so far.
+   */
+  int top(int k, int[] indices) {
+    k = Math.min(k, size);
+    if (k <= 0) {
+      return 0;
+    }
+    if (heap.length < k) {
+      heap = new int[k];
+    }
+
+    int n = 0;
+    for (int i = 0; i < size; i++) {
+      if (n < k) {
+        heap[n] = i;
+        siftUp(n++);
+      } else if (isFitter(i, heap[0])) {
+        heap[0] = i;
+        siftDown(0, n);
+      }
+    }
+    // popping the least fit unit first fills indices from the back
+    for (int end = n - 1; end >= 0; end--) {
+      indices[end] = heap[0];
+      heap[0] = heap[end];
+      siftDown(0, end);
+    }
+    return n;
+  }
+
+  /** @return whether unit a is fitter than unit b. */
+  private boolean isFitter(int a, int b) {
+    double fa = key(fitness[a]);
+    double fb = key(fitness[b]);
+    return fa > fb || (fa == fb && a < b);
+  }
+
+  private static double key(double fitness) {
+    return Double.isNaN(fitness) ? Double.NEGATIVE_INFINITY : fitness;
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (!isFitter(heap[parent], heap[i])) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i, int n) {
+    while (true) {
+      int least = i;
+      int left = 2 * i + 1;
+      int right = left + 1;
+      if (left < n && isFitter(heap[least], heap[left])) {
+        least = left;
+      }
+      if (right < n && isFitter(heap[least], heap[right])) {
+        least = right;
+      }
+      if (least == i) {
+        return;
+      }
+      swap(i, least);
+      i = least;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int tmp = heap[i];
+    heap[i] = heap[j];
+    heap[j] = tmp;
+  }
+
+  private void count(int i) {
+    sum += fitness[i];
+    if (Double.isFinite(fitness[i])) {
+      finiteSum += fitness[i];
+    }
+    if (best < 0 || isFitter(i, best)) {
+      best = i;
+    }
+    if (worst < 0 || isFitter(worst, i)) {
+      worst = i;
+    }
+  }
+}
@@ -0,0 +1,235 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.Combinator;
+import genetic.GeneticAlgorithm.FitnessEvaluator;
+import genetic.GeneticAlgorithm.Mutator;
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.GeneticAlgorithm.UnitGenerator;
+import genetic.common.Incumbent;
+import genetic.common.IterationBounds;
+import genetic.common.PopulationInfo;
+import genetic.common.Termination;
+import genetic.common.Unit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Steady-state variant of {@link GeneticAlgorithm}, without generations.
+ *
+ * <p>Every worker repeatedly picks two parents by tournament, produces and evaluates a single
+ * child, and puts it into the slot of the loser of another tournament if the child is fitter.
+ * Slots hold immutable units and are replaced by compare-and-set, so workers never lock or wait
+ * for each other, and a slow evaluation holds up nothing but its own worker. A unit is only ever
+ * replaced by a fitter one, so the fittest unit is never lost.
+ *
+ * <p>Workers interleave freely, so unlike {@link GeneticAlgorithm} runs are not reproducible.
+ * The termination is checked by the thread calling {@link #iterate()} after each of its children,
+ * with every {@code populationInfo.size} evaluations counting as a generation.
+ */
+public class SteadyStateGA<T> {
+
+  private static final long LOG_INTERVAL = 100_000;
+
+  private final PopulationInfo populationInfo;
+  private final FitnessEvaluator<T> fitnessEvaluator;
+  private final Combinator<T> crossover;
+  private final Mutator<T> mutator;
+  private final Random random;
+  private final ForkJoinPool pool;
+  private final int nWorkers;
+  private final Logger logger;
+  private Termination termination;
+
+  private final AtomicReferenceArray<UnitAndFitness<T>> slots;
+  private final AtomicReference<UnitAndFitness<T>> best = new AtomicReference<>();
+  private final AtomicLong evaluations = new AtomicLong();
+  // number of evaluations when the best unit last improved
+  private volatile long lastImprovement;
+  // set when the thread calling iterate is interrupted, to stop the other workers as well
+  private volatile boolean stopped;
+
+  // shared best solution to publish to, null if there is none
+  private Incumbent<T> incumbent;
+  private String source;
+
+  public SteadyStateGA(
+      UnitGenerator<T> unitGenerator,
+      PopulationInfo populationInfo,
+      IterationBounds iterationBounds,
+      FitnessEvaluator<T> fitnessEvaluator,
+      Combinator<T> crossover,
+      Mutator<T> mutator,
+      Random random,
+      ForkJoinPool pool,
+      Logger logger) {
+    this(unitGenerator, populationInfo, iterationBounds, fitnessEvaluator, crossover, mutator,
+        random, pool, pool.getParallelism(), logger);
+  }
+
+  /**
+   * @param random only used to seed the random of every worker
+   * @param pool pool the workers run on, besides the thread calling {@link #iterate()}
+   */
+  public SteadyStateGA(
+      UnitGenerator<T> unitGenerator,
+      PopulationInfo populationInfo,
+      IterationBounds iterationBounds,
+      FitnessEvaluator<T> fitnessEvaluator,
+      Combinator<T> crossover,
+      Mutator<T> mutator,
+      Random random,
+      ForkJoinPool pool,
+      int nWorkers,
+      Logger logger) {
+    this.populationInfo = populationInfo;
+    this.fitnessEvaluator = fitnessEvaluator;
+    this.crossover = crossover;
+    this.mutator = mutator;
+    this.random = random;
+    this.pool = pool;
+    this.nWorkers = Math.max(1, nWorkers);
+    this.logger = logger;
+    this.termination = GeneticAlgorithm.defaultTermination(iterationBounds);
+
+    this.slots = new AtomicReferenceArray<>(populationInfo.size);
+    List<Unit<T>> units = unitGenerator.init(populationInfo.size);
+    for (int i = 0; i < units.size(); i++) {
+      UnitAndFitness<T> unit =
+          new UnitAndFitness<>(units.get(i), fitnessEvaluator.apply(units.get(i).value));
+      slots.set(i, unit);
+      improve(unit);
+    }
+  }
+
+  /**
+   * Replaces the default termination, which is the same as {@link GeneticAlgorithm}'s.
+   *
+   * @throws IllegalArgumentException if the termination only measures the CPU time of the
+   *     calling thread, while other workers run as well
+   */
+  public void stopWhen(Termination termination) {
+    if (nWorkers > 1 && termination.isPerThread()) {
+      throw new IllegalArgumentException(
+          "Thread CPU time does not bound a run with several workers.");
+    }
+    this.termination = termination;
+  }
+
+  /** Makes this algorithm publish every new best unit to the incumbent. */
+  public void publishTo(Incumbent<T> incumbent, String source) {
+    this.incumbent = incumbent;
+    this.source = source;
+  }
+
+  /**
+   * Runs the workers until the termination is complete, or the calling thread is interrupted.
+   *
+   * @return the fittest unit found
+   */
+  public UnitAndFitness<T> iterate() {
+    termination.start();
+    List<ForkJoinTask<?>> workers = new ArrayList<>();
+    for (int w = 1; w < nWorkers; w++) {
+      Random workerRandom = new Random(random.nextLong());
+      workers.add(pool.submit(() -> work(workerRandom, false)));
+    }
+    // the calling thread is a worker as well, rather than idly waiting for the others
+    try {
+      work(new Random(random.nextLong()), true);
+    } finally {
+      // also if this worker failed, so that the others do not run on forever
+      stopped = true;
+    }
+    workers.forEach(ForkJoinTask::join);
+
+    logger.info(String.format("Finishing with %s evaluations.", evaluations.get()));
+    return best.get();
+  }
+
+  /** @param checksTermination whether this worker stops the others once the run is complete */
+  private void work(Random random, boolean checksTermination) {
+    while (!stopped && !Thread.currentThread().isInterrupted()
+        && !(checksTermination && isComplete())) {
+      T child;
+      if (GeneticAlgorithm.shouldPerformAction(populationInfo.crossoverProbability, random)) {
+        child = crossover.apply(
+            slots.get(tournament(random, true)).getUnit().value,
+            slots.get(tournament(random, true)).getUnit().value,
+            random);
+      } else {
+        child = slots.get(random.nextInt(slots.length())).getUnit().value;
+      }
+      if (GeneticAlgorithm.shouldPerformAction(populationInfo.mutationProbability, random)) {
+        child = mutator.apply(child, random);
+      }
+
+      UnitAndFitness<T> unit =
+          new UnitAndFitness<>(new Unit<>(child), fitnessEvaluator.apply(child));
+      replaceLoser(unit, random);
+      improve(unit);
+
+      long count = evaluations.incrementAndGet();
+      if (count % LOG_INTERVAL == 0) {
+        logger.info(String.format(
+            "Completed %s evaluations. Best fitness: %s", count, best.get().getFitness()));
+      }
+    }
+  }
+
+  private boolean isComplete() {
+    int size = slots.length();
+    return termination.isComplete((int) (evaluations.get() / size), evaluations.get(),
+        best.get().getFitness(), (int) (lastImprovement / size));
+  }
+
+  /** @return slot of the fittest, or the least fit, of tournamentSize random slots. */
+  private int tournament(Random random, boolean fittest) {
+    int size = Math.max(2, populationInfo.tournamentSize);
+    int winner = random.nextInt(slots.length());
+    for (int k = 1; k < size; k++) {
+      int other = random.nextInt(slots.length());
+      if (isFitter(slots.get(other), slots.get(winner)) == fittest) {
+        winner = other;
+      }
+    }
+    return winner;
+  }
+
+  /** Puts the unit in place of a tournament loser, if the unit is fitter. */
+  private void replaceLoser(UnitAndFitness<T> unit, Random random) {
+    int slot = tournament(random, false);
+    UnitAndFitness<T> loser = slots.get(slot);
+    // if another worker replaced the loser first, the slot now holds a fitter unit anyway
+    if (isFitter(unit, loser)) {
+      slots.compareAndSet(slot, loser, unit);
+    }
+  }
+
+  private void improve(UnitAndFitness<T> unit) {
+    UnitAndFitness<T> current;
+    do {
+      current = best.get();
+      if (current != null && !isFitter(unit, current)) {
+        return;
+      }
+    } while (!best.compareAndSet(current, unit));
+    lastImprovement = evaluations.get();
+
+    if (incumbent != null) {
+      incumbent.offer(unit.getUnit().value, unit.getFitness(), source);
+    }
+  }
+
+  /** NaN is the worst fitness. */
+  private static <T> boolean isFitter(UnitAndFitness<T> a, UnitAndFitness<T> b) {
+    return a.getFitness() > b.getFitness()
+        || (Double.isNaN(b.getFitness()) && !Double.isNaN(a.getFitness()));
+  }
+}
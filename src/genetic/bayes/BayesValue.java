@@ -27,9 +27,11 @@ public class BayesValue {
   private double variance;
   private double step = 1;
 
-  private final Random random = new Random();
+  private final Random random;
 
-  public BayesValue(double mean, double variance) {
+  /** @param random source of the samples, owned by the caller's thread */
+  public BayesValue(double mean, double variance, Random random) {
+    this.random = random;
     this.mean = mean;
     this.variance = variance;
     this.mean0 = mean;
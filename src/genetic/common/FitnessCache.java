@@ -0,0 +1,97 @@
+package genetic.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded map from solution fingerprints to their fitness, evicting the least recently used
+ * entries. Safe to share between threads; the fitness itself is computed outside of the lock.
+ *
+ * <p>Entries are split into stripes by fingerprint, each one an LRU map behind its own lock, so
+ * that concurrent workers rarely contend. Eviction is least recently used per stripe.
+ */
+public class FitnessCache {
+
+  private static final int DEFAULT_STRIPES = 16;
+  // spreads fingerprint bits over the stripe index
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final Map<Long, Double>[] stripes;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public FitnessCache(int capacity) {
+    this(capacity, Math.min(DEFAULT_STRIPES, Integer.highestOneBit(Math.max(1, capacity))));
+  }
+
+  /** @param nStripes number of separately locked stripes, rounded down to a power of two */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public FitnessCache(int capacity, int nStripes) {
+    int n = Integer.highestOneBit(Math.max(1, nStripes));
+    int stripeCapacity = Math.max(1, (capacity + n - 1) / n);
+    this.stripes = new Map[n];
+    this.mask = n - 1;
+    for (int i = 0; i < n; i++) {
+      stripes[i] = new LinkedHashMap<Long, Double>(2 * stripeCapacity, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+          return size() > stripeCapacity;
+        }
+      };
+    }
+  }
+
+  /** @return cached fitness for the fingerprint, or null (counted as a miss). */
+  public Double get(long fingerprint) {
+    Map<Long, Double> stripe = stripe(fingerprint);
+    Double fitness;
+    synchronized (stripe) {
+      fitness = stripe.get(fingerprint);
+    }
+    if (fitness == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return fitness;
+  }
+
+  public void put(long fingerprint, double fitness) {
+    Map<Long, Double> stripe = stripe(fingerprint);
+    synchronized (stripe) {
+      stripe.put(fingerprint, fitness);
+    }
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public int size() {
+    int size = 0;
+    for (Map<Long, Double> stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Map<Long, Double> stripe(long fingerprint) {
+    return stripes[(int) ((fingerprint * GOLDEN_GAMMA) >>> 32) & mask];
+  }
+
+  @Override
+  public String toString() {
+    long nHits = getHits();
+    long total = nHits + getMisses();
+    return String.format("FitnessCache{size=%s, hits=%s, misses=%s, hitRate=%.3f}",
+        size(), nHits, total - nHits, total == 0 ? 0.0 : (double) nHits / total);
+  }
+}
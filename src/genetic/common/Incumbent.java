@@ -0,0 +1,135 @@
+package genetic.common;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Best solution found so far by any of the solvers sharing this object.
+ *
+ * <p>The best solution is an immutable {@link Snapshot} behind an atomic reference, replaced by
+ * compare-and-set only when a better one is offered. Readers never block publishers and
+ * publishers never block each other.
+ *
+ * <p>Offers are ranked by their fitness, or by a separate key given to the constructor, e.g. when
+ * the fitness can overflow to infinity and no longer tell solutions apart.
+ *
+ * <p>Listeners are told about every new incumbent. Published values must not be modified
+ * afterwards, so whoever wants to change one has to copy it first.
+ */
+public class Incumbent<T> {
+
+  public static final class Snapshot<T> {
+    private final T value;
+    private final double fitness;
+    private final double rank;
+    private final String source;
+
+    private Snapshot(T value, double fitness, double rank, String source) {
+      this.value = value;
+      this.fitness = fitness;
+      this.rank = rank;
+      this.source = source;
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    public double getFitness() {
+      return fitness;
+    }
+
+    /** @return key the snapshot was ranked by, same as the fitness if there is no ranking. */
+    public double getRank() {
+      return rank;
+    }
+
+    /** @return description of the solver which published it. */
+    public String getSource() {
+      return source;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Snapshot{fitness=%s, rank=%s, source=%s}", fitness, rank,
+          source);
+    }
+  }
+
+  private final AtomicReference<Snapshot<T>> best = new AtomicReference<>();
+  private final List<Consumer<Snapshot<T>>> listeners = new CopyOnWriteArrayList<>();
+  // null to rank by fitness
+  private final ToDoubleFunction<T> ranking;
+
+  public Incumbent() {
+    this(null);
+  }
+
+  /** @param ranking key to maximize which offers are ranked by instead of their fitness */
+  public Incumbent(ToDoubleFunction<T> ranking) {
+    this.ranking = ranking;
+  }
+
+  /**
+   * Calls the listener with every new incumbent, on the thread which published it. Listeners
+   * should return quickly, e.g. by handing the snapshot off to another thread.
+   */
+  public void addListener(Consumer<Snapshot<T>> listener) {
+    listeners.add(listener);
+  }
+
+  /** @return the best snapshot so far, or null if nothing has been published. */
+  public Snapshot<T> get() {
+    return best.get();
+  }
+
+  /** @return whether the value became the incumbent. */
+  public boolean offer(T value, double fitness, String source) {
+    return offer(value, fitness, rank(value, fitness), source);
+  }
+
+  /**
+   * Same as {@link #offer(Object, double, String)}, for solutions which are still being
+   * modified: the copy is only made when it would currently become the incumbent.
+   */
+  public boolean offerCopy(T value, UnaryOperator<T> copy, double fitness, String source) {
+    double rank = rank(value, fitness);
+    return isImprovedBy(rank) && offer(copy.apply(value), fitness, rank, source);
+  }
+
+  private boolean offer(T value, double fitness, double rank, String source) {
+    Snapshot<T> candidate = null;
+    while (true) {
+      Snapshot<T> current = best.get();
+      if (!isImprovedBy(rank, current)) {
+        return false;
+      }
+      if (candidate == null) {
+        candidate = new Snapshot<>(value, fitness, rank, source);
+      }
+      if (best.compareAndSet(current, candidate)) {
+        for (Consumer<Snapshot<T>> listener : listeners) {
+          listener.accept(candidate);
+        }
+        return true;
+      }
+    }
+  }
+
+  private double rank(T value, double fitness) {
+    return ranking == null ? fitness : ranking.applyAsDouble(value);
+  }
+
+  private boolean isImprovedBy(double rank) {
+    return isImprovedBy(rank, best.get());
+  }
+
+  private static boolean isImprovedBy(double rank, Snapshot<?> current) {
+    // also rejects NaN
+    return current == null ? !Double.isNaN(rank) : rank > current.rank;
+  }
+}
@@ -3,14 +3,18 @@ package genetic.common;
 public class IterationBounds {
   int numIterations;
   double deltaThreshold;
-  private boolean started;
-  private long startTime;
-
 
   public IterationBounds(int numIterations, double deltaThreshold) {
     this.numIterations = numIterations;
     this.deltaThreshold = deltaThreshold;
-    started = false;
+  }
+
+  public int getNumIterations() {
+    return numIterations;
+  }
+
+  public double getDeltaThreshold() {
+    return deltaThreshold;
   }
 
   public boolean isComplete(int numIterations) {
@@ -29,14 +33,4 @@ public class IterationBounds {
 //          || lastError <= this.deltaThreshold
 //          || (errorsShifted.size() > 1 && maxDeltaBetweenIterations <= this.deltaThreshold);
   }
-
-  public boolean timeRanOut(long durationInMilis) {
-    if (!started) {
-      started = true;
-      startTime = System.currentTimeMillis();
-      return false;
-    } else {
-      return (startTime + durationInMilis < System.currentTimeMillis());
-    }
-  }
 }
@@ -0,0 +1,35 @@
+package genetic.common;
+
+/** How the islands of an island model GA exchange units. */
+public class MigrationInfo {
+
+  public enum Topology {
+    /** Island i sends to island i + 1. */
+    RING,
+    /** Every island sends to every other island. */
+    FULL,
+    /** Every island sends to a single other island, chosen anew at every migration. */
+    RANDOM
+  }
+
+  // number of generations between two migrations of an island
+  public int interval;
+  // number of top units sent at every migration
+  public int migrants;
+  public Topology topology;
+
+  public MigrationInfo(int interval, int migrants, Topology topology) {
+    this.interval = interval;
+    this.migrants = migrants;
+    this.topology = topology;
+  }
+
+  @Override
+  public String toString() {
+    return "MigrationInfo{" +
+        "interval=" + interval +
+        ", migrants=" + migrants +
+        ", topology=" + topology +
+        '}';
+  }
+}
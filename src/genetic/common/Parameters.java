@@ -1,16 +1,61 @@
 package genetic.common;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Parameters {
   public PopulationInfo populationInfo;
   public IterationBounds iterationBounds;
+  // owned by the run, which seeds the random of every worker from it; null to derive it
+  // from the master seed, see seeded
   public Random random;
+  // whether the offspring of a generation are produced in parallel, on a pool of the run
+  public boolean parallelOffspring;
+  // whether to run a parallel steady-state GA instead of a generational one
+  public boolean steadyState;
+  // when a run stops, null for the default; every run needs its own
+  public Termination termination;
+  // how a generational run restarts once it stagnates, null to never restart
+  public RestartInfo restartInfo;
+
+  public Parameters(PopulationInfo populationInfo, IterationBounds iterationBounds) {
+    this(populationInfo, iterationBounds, null);
+  }
 
   public Parameters(PopulationInfo populationInfo, IterationBounds iterationBounds,
       Random random) {
+    this(populationInfo, iterationBounds, random, false);
+  }
+
+  public Parameters(PopulationInfo populationInfo, IterationBounds iterationBounds,
+      Random random, boolean parallelOffspring) {
     this.populationInfo = populationInfo;
     this.iterationBounds = iterationBounds;
     this.random = random;
+    this.parallelOffspring = parallelOffspring;
+  }
+
+  /**
+   * @return copies of the parameters, where runs without a random get their own, seeded from
+   *     an independent split of the master seed in the order of the runs. The same master seed
+   *     thus gives the same runs.
+   */
+  public static List<Parameters> seeded(long masterSeed, List<Parameters> parameters) {
+    SplittableRandom master = new SplittableRandom(masterSeed);
+    List<Parameters> seeded = new ArrayList<>(parameters.size());
+    for (Parameters parameter : parameters) {
+      // split for every run, so that a run keeps its seed when others get explicit randoms
+      long seed = master.split().nextLong();
+      Parameters copy = new Parameters(parameter.populationInfo, parameter.iterationBounds,
+          parameter.random == null ? new Random(seed) : parameter.random,
+          parameter.parallelOffspring);
+      copy.steadyState = parameter.steadyState;
+      copy.termination = parameter.termination;
+      copy.restartInfo = parameter.restartInfo;
+      seeded.add(copy);
+    }
+    return seeded;
   }
 }
@@ -7,16 +7,28 @@ public class PopulationInfo {
   public double mutationProbability;
   public double crossoverProbability;
 
+  public Selection.Type selection;
+  // only used by tournament selection
+  public int tournamentSize;
+
   public PopulationInfo(PopulationInfo populationInfo) {
     this(populationInfo.size, populationInfo.elitism, populationInfo.mutationProbability,
-        populationInfo.crossoverProbability);
+        populationInfo.crossoverProbability, populationInfo.selection,
+        populationInfo.tournamentSize);
   }
 
   public PopulationInfo(int size, int elitism, double mutationProbability, double crossoverProbability) {
+    this(size, elitism, mutationProbability, crossoverProbability, Selection.Type.ROULETTE, 2);
+  }
+
+  public PopulationInfo(int size, int elitism, double mutationProbability,
+      double crossoverProbability, Selection.Type selection, int tournamentSize) {
     this.size = size;
     this.elitism = elitism;
     this.mutationProbability = mutationProbability;
     this.crossoverProbability = crossoverProbability;
+    this.selection = selection;
+    this.tournamentSize = tournamentSize;
   }
 
   @Override
@@ -26,6 +38,8 @@ public class PopulationInfo {
             ", elitism=" + elitism +
             ", mutationProbability=" + mutationProbability +
             ", crossoverProbability=" + crossoverProbability +
+            ", selection=" + selection +
+            (selection == Selection.Type.TOURNAMENT ? ", tournamentSize=" + tournamentSize : "") +
             '}';
   }
 }
@@ -0,0 +1,43 @@
+package genetic.common;
+
+/** When and how a generational GA restarts its population once it stagnates. */
+public class RestartInfo {
+
+  // number of generations without a new best unit, or since the last restart, before restarting
+  public int stagnation;
+  // number of the fittest units ever seen which are kept, and carried over into every restart
+  public int archiveSize;
+  // shares of the rest of a restarted population made of mutated archive units and of greedy
+  // solutions; whatever remains comes from the unit generator
+  public double perturbedShare;
+  public double greedyShare;
+  // factor by which the population grows at every restart, 1 to keep its size (IPOP when > 1)
+  public double growth;
+  public int maxSize;
+
+  public RestartInfo(int stagnation, int archiveSize) {
+    this(stagnation, archiveSize, 0.5, 0.2, 1, Integer.MAX_VALUE);
+  }
+
+  public RestartInfo(int stagnation, int archiveSize, double perturbedShare, double greedyShare,
+      double growth, int maxSize) {
+    this.stagnation = stagnation;
+    this.archiveSize = archiveSize;
+    this.perturbedShare = perturbedShare;
+    this.greedyShare = greedyShare;
+    this.growth = growth;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "RestartInfo{" +
+        "stagnation=" + stagnation +
+        ", archiveSize=" + archiveSize +
+        ", perturbedShare=" + perturbedShare +
+        ", greedyShare=" + greedyShare +
+        ", growth=" + growth +
+        ", maxSize=" + maxSize +
+        '}';
+  }
+}
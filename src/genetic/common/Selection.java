@@ -0,0 +1,168 @@
+package genetic.common;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks parents from a population, given as the fitness of each unit. Built once per
+ * generation, after which every pick takes constant or O(k) time. Picks only read the selection,
+ * so a single one can be used from several threads, each with its own random.
+ */
+public abstract class Selection {
+
+  public enum Type {
+    /** Probability proportional to fitness. */
+    ROULETTE,
+    /** Fittest of {@code tournamentSize} uniformly picked units. */
+    TOURNAMENT,
+    /** Probability proportional to n - rank, where the fittest unit has rank 0. */
+    RANK
+  }
+
+  /** @return index of the picked unit. */
+  public abstract int select(Random random);
+
+  public static Selection of(PopulationInfo populationInfo, double[] fitness) {
+    return of(populationInfo, fitness, fitness.length);
+  }
+
+  /** @param n number of units, whose fitness is at the start of the array */
+  public static Selection of(PopulationInfo populationInfo, double[] fitness, int n) {
+    switch (populationInfo.selection) {
+      case TOURNAMENT:
+        return new Tournament(fitness, n, populationInfo.tournamentSize);
+      case RANK:
+        return new Alias(rankWeights(fitness, n), n);
+      case ROULETTE:
+      default:
+        return new Alias(fitness, n);
+    }
+  }
+
+  /** @return weight n - rank of every unit, with units of NaN fitness ranked last. */
+  private static double[] rankWeights(double[] fitness, int n) {
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(key(fitness[b]), key(fitness[a])));
+    double[] weights = new double[n];
+    for (int rank = 0; rank < n; rank++) {
+      weights[order[rank]] = n - rank;
+    }
+    return weights;
+  }
+
+  private static double key(double fitness) {
+    return Double.isNaN(fitness) ? Double.NEGATIVE_INFINITY : fitness;
+  }
+
+  /**
+   * Walker's alias method: a table of n columns with a threshold and an alias each, built in
+   * O(n), from which a weighted pick takes one random column and one comparison. Weights which
+   * are negative or NaN count as zero; if all are zero, picks are uniform. If any weight is
+   * +Infinity, e.g. a fitness which overflowed, those units get all of the probability mass and
+   * are picked uniformly among themselves.
+   */
+  private static final class Alias extends Selection {
+    private final double[] threshold;
+    private final int[] alias;
+
+    Alias(double[] weights, int n) {
+      this.threshold = new double[n];
+      this.alias = new int[n];
+
+      weights = normalized(weights, n);
+      double total = 0;
+      for (int i = 0; i < n; i++) {
+        total += weights[i];
+      }
+      if (!(total > 0)) {
+        Arrays.fill(threshold, 1.0);
+        return;
+      }
+
+      // columns are split into ones below and ones above the mean, kept as two stacks
+      int[] small = new int[n];
+      int[] large = new int[n];
+      int nSmall = 0;
+      int nLarge = 0;
+      for (int i = 0; i < n; i++) {
+        threshold[i] = weights[i] * n / total;
+        if (threshold[i] < 1.0) {
+          small[nSmall++] = i;
+        } else {
+          large[nLarge++] = i;
+        }
+      }
+      while (nSmall > 0 && nLarge > 0) {
+        int s = small[--nSmall];
+        int l = large[nLarge - 1];
+        alias[s] = l;
+        threshold[l] -= 1.0 - threshold[s];
+        if (threshold[l] < 1.0) {
+          nLarge--;
+          small[nSmall++] = l;
+        }
+      }
+      // whatever is left is only off by rounding errors
+      while (nLarge > 0) {
+        threshold[large[--nLarge]] = 1.0;
+      }
+      while (nSmall > 0) {
+        threshold[small[--nSmall]] = 1.0;
+      }
+    }
+
+    /** @return weights in [0, 1], proportional to the valid ones, so that their sum is finite. */
+    private static double[] normalized(double[] weights, int n) {
+      double[] normalized = new double[n];
+      boolean anyInfinite = false;
+      double max = 0;
+      for (int i = 0; i < n; i++) {
+        anyInfinite |= weights[i] == Double.POSITIVE_INFINITY;
+        if (weights[i] > max && Double.isFinite(weights[i])) {
+          max = weights[i];
+        }
+      }
+      for (int i = 0; i < n; i++) {
+        if (anyInfinite) {
+          normalized[i] = weights[i] == Double.POSITIVE_INFINITY ? 1 : 0;
+        } else if (weights[i] > 0) {
+          normalized[i] = weights[i] / max;
+        }
+      }
+      return normalized;
+    }
+
+    @Override
+    public int select(Random random) {
+      int column = random.nextInt(threshold.length);
+      return random.nextDouble() < threshold[column] ? column : alias[column];
+    }
+  }
+
+  private static final class Tournament extends Selection {
+    private final double[] fitness;
+    private final int n;
+    private final int size;
+
+    Tournament(double[] fitness, int n, int size) {
+      this.fitness = fitness;
+      this.n = n;
+      this.size = Math.max(1, size);
+    }
+
+    @Override
+    public int select(Random random) {
+      int best = random.nextInt(n);
+      for (int k = 1; k < size; k++) {
+        int other = random.nextInt(n);
+        if (key(fitness[other]) > key(fitness[best])) {
+          best = other;
+        }
+      }
+      return best;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package genetic.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Stop condition of a GA run, checked after every generation. Conditions are combined with
+ * {@link #anyOf}. A termination keeps state, e.g. when its run started, so every run needs its
+ * own.
+ */
+public abstract class Termination {
+
+  /** Called once, when the run starts. */
+  public void start() {
+  }
+
+  /**
+   * @param generation number of completed generations
+   * @param evaluations number of fitness evaluations so far
+   * @param bestFitness best fitness so far
+   * @param lastImprovement generation in which the best fitness last improved
+   * @return whether the run should stop
+   */
+  public abstract boolean isComplete(
+      int generation, long evaluations, double bestFitness, int lastImprovement);
+
+  /**
+   * @return whether the termination measures the CPU time of the checking thread only, which
+   *     does not bound runs whose work is done on other threads
+   */
+  public boolean isPerThread() {
+    return false;
+  }
+
+  /** @return termination which stops once any of the given ones would. */
+  public static Termination anyOf(Termination... terminations) {
+    return new AnyOf(Arrays.asList(terminations));
+  }
+
+  /** Stops once the given wall-clock time has passed since the start. */
+  public static Termination time(long millis) {
+    return new Clock(millis, System::nanoTime, false);
+  }
+
+  /** Same as {@link #time(long)}, reading nanoseconds from the given clock. */
+  static Termination time(long millis, LongSupplier nanoClock) {
+    return new Clock(millis, nanoClock, false);
+  }
+
+  /**
+   * Stops once the thread running the generations has used the given CPU time, which leaves out
+   * time spent by other threads; runs which produce offspring in parallel therefore reject it,
+   * see {@link #isPerThread()}. Falls back to wall-clock time if thread CPU time cannot be
+   * measured.
+   */
+  public static Termination cpuTime(long millis) {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    return threads.isCurrentThreadCpuTimeSupported()
+        ? new Clock(millis, threads::getCurrentThreadCpuTime, true)
+        : time(millis);
+  }
+
+  public static Termination generations(int generations) {
+    return new Termination() {
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        return generation >= generations;
+      }
+    };
+  }
+
+  public static Termination evaluations(long maxEvaluations) {
+    return new Termination() {
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        return evaluations >= maxEvaluations;
+      }
+    };
+  }
+
+  /** Stops once the best fitness has not improved for the given number of generations. */
+  public static Termination stagnation(int generations) {
+    return new Termination() {
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        return generation - lastImprovement >= generations;
+      }
+    };
+  }
+
+  /**
+   * Stops once the best fitness has not improved by more than minDelta for the given number of
+   * generations, so that a run which only creeps forward counts as stagnating as well.
+   */
+  public static Termination stagnation(int generations, double minDelta) {
+    return new Termination() {
+      private double reference;
+      private int since;
+
+      @Override
+      public void start() {
+        reference = Double.NaN;
+        since = 0;
+      }
+
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        if (Double.isNaN(reference) || bestFitness - reference > minDelta) {
+          reference = bestFitness;
+          since = generation;
+        }
+        return generation - since >= generations;
+      }
+    };
+  }
+
+  /** Stops once the best fitness reaches the target. */
+  public static Termination target(double fitness) {
+    return new Termination() {
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        return bestFitness >= fitness;
+      }
+    };
+  }
+
+  /** Stops once cancelled is true, e.g. {@code AtomicBoolean::get}. */
+  public static Termination cancelled(BooleanSupplier cancelled) {
+    return new Termination() {
+      @Override
+      public boolean isComplete(
+          int generation, long evaluations, double bestFitness, int lastImprovement) {
+        return cancelled.getAsBoolean();
+      }
+    };
+  }
+
+  private static final class AnyOf extends Termination {
+    private final List<Termination> terminations;
+
+    AnyOf(List<Termination> terminations) {
+      this.terminations = terminations;
+    }
+
+    @Override
+    public void start() {
+      terminations.forEach(Termination::start);
+    }
+
+    @Override
+    public boolean isPerThread() {
+      return terminations.stream().anyMatch(Termination::isPerThread);
+    }
+
+    @Override
+    public boolean isComplete(
+        int generation, long evaluations, double bestFitness, int lastImprovement) {
+      for (Termination termination : terminations) {
+        if (termination.isComplete(generation, evaluations, bestFitness, lastImprovement)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Reads the clock only every few checks, adjusting how many so that reads are about {@link
+   * #READ_INTERVAL_NANOS} apart: short generations do not pay for a clock read each, and the
+   * budget is overrun by little more than the interval.
+   */
+  private static final class Clock extends Termination {
+    private static final long READ_INTERVAL_NANOS = 10_000_000;
+    private static final int MAX_SKIP = 1 << 16;
+
+    private final long budgetNanos;
+    private final LongSupplier nanoClock;
+    private final boolean perThread;
+    private long start;
+    private long lastRead;
+    private int skip = 1;
+    private int untilRead;
+    private boolean complete;
+
+    Clock(long millis, LongSupplier nanoClock, boolean perThread) {
+      this.budgetNanos = millis * 1_000_000;
+      this.nanoClock = nanoClock;
+      this.perThread = perThread;
+    }
+
+    @Override
+    public boolean isPerThread() {
+      return perThread;
+    }
+
+    @Override
+    public void start() {
+      start = nanoClock.getAsLong();
+      lastRead = start;
+      skip = 1;
+      untilRead = 0;
+      complete = false;
+    }
+
+    @Override
+    public boolean isComplete(
+        int generation, long evaluations, double bestFitness, int lastImprovement) {
+      if (complete || --untilRead > 0) {
+        return complete;
+      }
+
+      long now = nanoClock.getAsLong();
+      long sinceLastRead = now - lastRead;
+      lastRead = now;
+      if (sinceLastRead < READ_INTERVAL_NANOS / 2) {
+        skip = Math.min(MAX_SKIP, skip * 2);
+      } else if (sinceLastRead > READ_INTERVAL_NANOS * 2) {
+        skip = Math.max(1, skip / 2);
+      }
+      // never skip past the end of the budget, as far as the current pace tells
+      long remaining = budgetNanos - (now - start);
+      if (sinceLastRead > 0 && remaining / sinceLastRead < 2) {
+        skip = 1;
+      }
+      untilRead = skip;
+      complete = remaining <= 0;
+      return complete;
+    }
+  }
+}
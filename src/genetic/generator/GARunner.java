@@ -1,40 +1,155 @@
 package genetic.generator;
 
 import genetic.GeneticAlgorithm;
+import genetic.Islands;
+import genetic.SteadyStateGA;
+import genetic.common.Incumbent;
 import genetic.common.IterationBounds;
+import genetic.common.MigrationInfo;
 import genetic.common.Pair;
 import genetic.common.PopulationInfo;
 import genetic.GeneticAlgorithm.UnitAndFitness;
 import genetic.GeneticAlgorithm.UnitGenerator;
 import genetic.common.Parameters;
 import hmo.instance.SolutionInstance;
+import hmo.solver.GreedySolver;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * Creates the GA runs of a set of parameters. Runs which are parallel themselves (steady-state,
+ * or with parallel offspring) each get their own pool with an equal share of the processors, so
+ * that concurrent runs do not starve each other on a shared pool. A run's pool is shut down once
+ * the run completes.
+ */
 public class GARunner {
 
   private SolutionInstanceGenerator generator;
+  private Incumbent<SolutionInstance> incumbent;
 
   public GARunner(SolutionInstanceGenerator generator) {
+    this(generator, null);
+  }
+
+  /** @param incumbent shared best solution every run publishes to, may be null */
+  public GARunner(SolutionInstanceGenerator generator, Incumbent<SolutionInstance> incumbent) {
     this.generator = generator;
+    this.incumbent = incumbent;
   }
 
   public Stream<Pair<PopulationInfo, Callable<UnitAndFitness<SolutionInstance>>>> evaluate(
       List<Parameters> parameters) {
+    int parallelism = parallelism(parameters.size());
     return parameters
         .stream()
-        .map(parameter -> new Pair<>(
-            new PopulationInfo(parameter.populationInfo),
-            new GeneticAlgorithm<>(
-                new UnitGenerator<>(generator::unitGenerator),
-                parameter.populationInfo,
-                parameter.iterationBounds,
-                generator::fitnessFunction,
-                generator::crossover,
-                generator::mutator,
-                parameter.random,
-                generator.logger)))
-        .map(ga -> new Pair<>(ga.first, ga.second::iterate));
+        .map(parameter -> parameter.steadyState
+            ? steadyState(parameter, parallelism)
+            : geneticAlgorithm(parameter, parallelism));
+  }
+
+  /**
+   * Same as {@link #evaluate(List)}, but every run is an island which periodically exchanges
+   * its top units with other islands. Islands never wait for each other, so a slow island does
+   * not hold back the others. Islands are always generational, whatever
+   * {@link Parameters#steadyState} says.
+   */
+  public Stream<Pair<PopulationInfo, Callable<UnitAndFitness<SolutionInstance>>>> evaluate(
+      List<Parameters> parameters, MigrationInfo migrationInfo) {
+    Islands<SolutionInstance> islands = new Islands<>(migrationInfo, parameters.size());
+    int parallelism = parallelism(parameters.size());
+    return IntStream.range(0, parameters.size())
+        .mapToObj(i -> {
+          ForkJoinPool pool = offspringPool(parameters.get(i), parallelism);
+          GeneticAlgorithm<SolutionInstance> ga = newGeneticAlgorithm(parameters.get(i), pool);
+          ga.joinIslands(islands, i);
+          return new Pair<>(
+              new PopulationInfo(parameters.get(i).populationInfo),
+              shutDownAfter(ga::iterate, pool));
+        });
+  }
+
+  private Pair<PopulationInfo, Callable<UnitAndFitness<SolutionInstance>>> geneticAlgorithm(
+      Parameters parameter, int parallelism) {
+    PopulationInfo populationInfo = new PopulationInfo(parameter.populationInfo);
+    ForkJoinPool pool = offspringPool(parameter, parallelism);
+    return new Pair<>(populationInfo,
+        shutDownAfter(newGeneticAlgorithm(parameter, pool)::iterate, pool));
+  }
+
+  private Pair<PopulationInfo, Callable<UnitAndFitness<SolutionInstance>>> steadyState(
+      Parameters parameter, int parallelism) {
+    PopulationInfo populationInfo = new PopulationInfo(parameter.populationInfo);
+    // the thread running the run is a worker as well
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism - 1));
+    SteadyStateGA<SolutionInstance> ga = new SteadyStateGA<>(
+        new UnitGenerator<>(generator::unitGenerator),
+        parameter.populationInfo,
+        parameter.iterationBounds,
+        generator::fitnessFunction,
+        generator::crossover,
+        generator::mutator,
+        parameter.random,
+        pool,
+        parallelism,
+        generator.logger);
+    if (incumbent != null) {
+      ga.publishTo(incumbent, populationInfo.toString());
+    }
+    if (parameter.termination != null) {
+      ga.stopWhen(parameter.termination);
+    }
+    return new Pair<>(populationInfo, shutDownAfter(ga::iterate, pool));
+  }
+
+  private GeneticAlgorithm<SolutionInstance> newGeneticAlgorithm(
+      Parameters parameter, ForkJoinPool offspringPool) {
+    GeneticAlgorithm<SolutionInstance> ga = new GeneticAlgorithm<>(
+        new UnitGenerator<>(generator::unitGenerator),
+        parameter.populationInfo,
+        parameter.iterationBounds,
+        generator::fitnessFunction,
+        generator::crossover,
+        generator::mutator,
+        parameter.random,
+        offspringPool,
+        generator.logger);
+    if (incumbent != null) {
+      ga.publishTo(incumbent, parameter.populationInfo.toString());
+    }
+    if (parameter.termination != null) {
+      ga.stopWhen(parameter.termination);
+    }
+    if (parameter.restartInfo != null) {
+      ga.restartOn(parameter.restartInfo,
+          random -> new GreedySolver(generator.problem, random).solve());
+    }
+    return ga;
+  }
+
+  /** @return number of processors each of the given number of concurrent runs may use. */
+  private static int parallelism(int nRuns) {
+    return Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, nRuns));
+  }
+
+  /** @return pool of its own for a run with parallel offspring, or null. */
+  private static ForkJoinPool offspringPool(Parameters parameter, int parallelism) {
+    return parameter.parallelOffspring && parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+  }
+
+  private static Callable<UnitAndFitness<SolutionInstance>> shutDownAfter(
+      Callable<UnitAndFitness<SolutionInstance>> run, ForkJoinPool pool) {
+    if (pool == null) {
+      return run;
+    }
+    return () -> {
+      try {
+        return run.call();
+      } finally {
+        pool.shutdown();
+      }
+    };
   }
 }
@@ -12,8 +12,8 @@ import java.util.Random;
 
 public class RandomizedGenerator extends SolutionInstanceGenerator {
 
-  public RandomizedGenerator(Random random, Problem problem, GAMeta meta) {
-    super(random, problem, meta);
+  public RandomizedGenerator(Problem problem, GAMeta meta) {
+    super(problem, meta);
   }
 
   @Override
@@ -22,11 +22,11 @@ public class RandomizedGenerator extends SolutionInstanceGenerator {
   }
 
   @Override
-  SolutionInstance crossoverImpl(SolutionInstance s1, SolutionInstance s2) {
+  SolutionInstance crossoverImpl(SolutionInstance s1, SolutionInstance s2, Random random) {
     s1.resetVehiclePool();
     s2.resetVehiclePool();
 
-    SolutionInstance modified = coinFlip(0.5) ? s1 : s2;
+    SolutionInstance modified = coinFlip(random, 0.5) ? s1 : s2;
     SolutionInstance nonModified = modified == s1 ? s2 : s1;
 
     for (VehicleInstance instance : nonModified.getAssignedVehicles()) {
@@ -39,11 +39,11 @@ public class RandomizedGenerator extends SolutionInstanceGenerator {
   }
 
   @Override
-  SolutionInstance mutatorImpl(SolutionInstance solutionInstance) {
+  SolutionInstance mutatorImpl(SolutionInstance solutionInstance, Random random) {
     Vehicle vehicle = solutionInstance.pollUnusedVehicle(random);
     double percentAssignedVehicles =
         (double) solutionInstance.getAssignedVehicles().size() / problem.getVehicles().size();
-    if (vehicle == null || coinFlip(percentAssignedVehicles)) {
+    if (vehicle == null || coinFlip(random, percentAssignedVehicles)) {
       solutionInstance.resetVehiclePool();
       solutionInstance.pollUsedVehicle(Utils.randomElement(problem.getTracks(), random), random);
       return solutionInstance;
@@ -55,7 +55,7 @@ public class RandomizedGenerator extends SolutionInstanceGenerator {
       solutionInstance.assign(vehicle, chosenInstance.getTrack());
     }
 
-    if (coinFlip(0.5)) {
+    if (coinFlip(random, 0.5)) {
       solutionInstance.swapParkedVehicles(
           solutionInstance.getRandomTrack(random).getTrack(),
           solutionInstance.getRandomTrack(random).getTrack()
@@ -65,7 +65,7 @@ public class RandomizedGenerator extends SolutionInstanceGenerator {
     return solutionInstance;
   }
 
-  private boolean coinFlip(double probabilityTrue) {
+  private static boolean coinFlip(Random random, double probabilityTrue) {
     return random.nextDouble() <= probabilityTrue;
   }
 }
@@ -17,8 +17,8 @@ import java.util.stream.Collectors;
 
 public class SmarterGenerator extends SolutionInstanceGenerator {
 
-  public SmarterGenerator(Random random, Problem problem, GAMeta meta) {
-    super(random, problem, meta);
+  public SmarterGenerator(Problem problem, GAMeta meta) {
+    super(problem, meta);
   }
 
   @Override
@@ -27,12 +27,12 @@ public class SmarterGenerator extends SolutionInstanceGenerator {
   }
 
   @Override
-  SolutionInstance crossoverImpl(SolutionInstance s1, SolutionInstance s2) {
-    if (coinFlip(meta.longestTrackCombinatorProbability)) {
+  SolutionInstance crossoverImpl(SolutionInstance s1, SolutionInstance s2, Random random) {
+    if (coinFlip(random, meta.longestTrackCombinatorProbability)) {
       return longestTrackCombinator(s1, s2);
     }
 
-    SolutionInstance modified = coinFlip(0.5) ? s1 : s2;
+    SolutionInstance modified = coinFlip(random, 0.5) ? s1 : s2;
     SolutionInstance nonModified = modified == s1 ? s2 : s1;
     modified.resetVehiclePool();
     for (VehicleInstance instance : nonModified.getAssignedVehicles()) {
@@ -71,13 +71,13 @@ public class SmarterGenerator extends SolutionInstanceGenerator {
   }
 
   @Override
-  SolutionInstance mutatorImpl(SolutionInstance solutionInstance) {
+  SolutionInstance mutatorImpl(SolutionInstance solutionInstance, Random random) {
     Vehicle vehicle = solutionInstance.pollUnusedVehicle(random);
     double percentAssignedVehicles =
         (double) solutionInstance.getAssignedVehicles().size() / problem.getVehicles().size();
 
-    if (vehicle == null || coinFlip(percentAssignedVehicles * meta.assignedVehiclesMultiplierProbability)) {
-      /*if (coinFlip(0.2)) {
+    if (vehicle == null || coinFlip(random, percentAssignedVehicles * meta.assignedVehiclesMultiplierProbability)) {
+      /*if (coinFlip(random, 0.2)) {
         List<TrackInstance> tracksWithASingleVehicle = solutionInstance.getTracksWithASingleVehicle();
         TrackInstance chosenInstance = Utils.randomElement(tracksWithASingleVehicle, random);
         if (chosenInstance != null) {
@@ -109,7 +109,7 @@ public class SmarterGenerator extends SolutionInstanceGenerator {
       blockers.forEach(solutionInstance::removeParkedVehicles);
     }
 
-    if (coinFlip(meta.trackSwapProbability)) {
+    if (coinFlip(random, meta.trackSwapProbability)) {
       solutionInstance.swapParkedVehicles(
           solutionInstance.getRandomTrack(random).getTrack(),
           solutionInstance.getRandomTrack(random).getTrack()
@@ -119,7 +119,7 @@ public class SmarterGenerator extends SolutionInstanceGenerator {
     return solutionInstance;
   }
 
-  private boolean coinFlip(double probabilityTrue) {
+  private static boolean coinFlip(Random random, double probabilityTrue) {
     return random.nextDouble() <= probabilityTrue;
   }
 }
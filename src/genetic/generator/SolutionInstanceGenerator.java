@@ -1,22 +1,31 @@
 package genetic.generator;
 
 import genetic.GAMeta;
+import genetic.common.FitnessCache;
 import hmo.Evaluator;
 import hmo.instance.SolutionInstance;
 import hmo.problem.Problem;
 import java.util.Random;
 import java.util.logging.Logger;
 
+/**
+ * Unit generator, operators and fitness function of the GA, shared by all of its concurrent runs
+ * and their workers. It holds no random state of its own: operators only draw from the random
+ * they are given, which belongs to the calling thread. The only shared mutable state is the
+ * fitness cache, which is thread-safe. Evaluating a unit does not modify it, since units may be
+ * shared between populations and threads.
+ */
 public abstract class SolutionInstanceGenerator {
 
+  private static final int FITNESS_CACHE_SIZE = 1 << 14;
+
   final Logger logger;
-  final Random random;
   final Problem problem;
   final GAMeta meta;
+  private final FitnessCache fitnessCache = new FitnessCache(FITNESS_CACHE_SIZE);
 
-  public SolutionInstanceGenerator(Random random, Problem problem, GAMeta meta) {
+  public SolutionInstanceGenerator(Problem problem, GAMeta meta) {
     this.logger = Logger.getLogger(this.getClass().getName());
-    this.random = random;
     this.problem = problem;
     this.meta = meta;
 
@@ -24,17 +33,31 @@ public abstract class SolutionInstanceGenerator {
   }
 
   double fitnessFunction(SolutionInstance solutionInstance) {
-    return new Evaluator(solutionInstance).fitnessToMaximize();
+    long fingerprint = solutionInstance.fingerprint();
+    Double cached = fitnessCache.get(fingerprint);
+    if (cached != null) {
+      return cached;
+    }
+
+    double fitness = new Evaluator(solutionInstance).fitnessToMaximize();
+    fitnessCache.put(fingerprint, fitness);
+    return fitness;
+  }
+
+  public FitnessCache getFitnessCache() {
+    return fitnessCache;
   }
 
   abstract SolutionInstance unitGenerator();
-  SolutionInstance crossover(SolutionInstance s1, SolutionInstance s2) {
-    return crossoverImpl(new SolutionInstance(s1), new SolutionInstance(s2));
+
+  SolutionInstance crossover(SolutionInstance s1, SolutionInstance s2, Random random) {
+    return crossoverImpl(new SolutionInstance(s1), new SolutionInstance(s2), random);
   }
-  abstract SolutionInstance crossoverImpl(SolutionInstance s1, SolutionInstance s2);
+  abstract SolutionInstance crossoverImpl(
+      SolutionInstance s1, SolutionInstance s2, Random random);
 
-  SolutionInstance mutator(SolutionInstance solutionInstance) {
-    return mutatorImpl(new SolutionInstance(solutionInstance));
+  SolutionInstance mutator(SolutionInstance solutionInstance, Random random) {
+    return mutatorImpl(new SolutionInstance(solutionInstance), random);
   }
-  abstract SolutionInstance mutatorImpl(SolutionInstance solutionInstance);
+  abstract SolutionInstance mutatorImpl(SolutionInstance solutionInstance, Random random);
 }
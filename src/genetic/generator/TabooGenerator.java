@@ -10,6 +10,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.function.Function;
 
+/** Also keeps a list of recent solutions, shared by all runs, which is synchronized. */
 public abstract class TabooGenerator extends SolutionInstanceGenerator {
   private static final int ITERATIONS_BEFORE_GIVING_UP = 100;
 
@@ -17,39 +18,51 @@ public abstract class TabooGenerator extends SolutionInstanceGenerator {
   private Queue<SolutionInstance> recentInstancesQueue;
   private final int tabooSize;
 
-  public TabooGenerator(Random random, Problem problem, GAMeta meta) {
-    super(random, problem, meta);
+  public TabooGenerator(Problem problem, GAMeta meta) {
+    super(problem, meta);
     this.recentInstances = new HashSet<>();
     this.recentInstancesQueue = new LinkedList<>();
     this.tabooSize = 50;
-
-    for (int i = 0; i < tabooSize; i++) {
-      this.recentInstancesQueue.add(new SolutionInstance(problem));
-    }
   }
 
   @Override
-  SolutionInstance crossover(SolutionInstance s1, SolutionInstance s2) {
+  SolutionInstance crossover(SolutionInstance s1, SolutionInstance s2, Random random) {
     return taboo(
-        super.crossover(s1, s2),
-        si -> super.crossover(si, random.nextBoolean() ? s1 : s2));
+        super.crossover(s1, s2, random),
+        si -> super.crossover(si, random.nextBoolean() ? s1 : s2, random));
   }
 
   @Override
-  SolutionInstance mutator(SolutionInstance solutionInstance) {
-    return taboo(super.mutator(solutionInstance), si -> super.mutator(solutionInstance));
+  SolutionInstance mutator(SolutionInstance solutionInstance, Random random) {
+    return taboo(
+        super.mutator(solutionInstance, random),
+        si -> super.mutator(solutionInstance, random));
   }
 
   private SolutionInstance taboo(
       SolutionInstance initialInstance,
       Function<SolutionInstance, SolutionInstance> function) {
     int iteration = 0;
-    while (recentInstances.contains(initialInstance) && iteration++ < ITERATIONS_BEFORE_GIVING_UP) {
+    while (isRecent(initialInstance) && iteration++ < ITERATIONS_BEFORE_GIVING_UP) {
       initialInstance = function.apply(initialInstance);
     }
-    recentInstances.add(initialInstance);
-    recentInstancesQueue.offer(initialInstance);
-    recentInstances.remove(recentInstancesQueue.poll());
+    remember(initialInstance);
     return initialInstance;
   }
+
+  // offspring may be produced concurrently; with parallel offspring the taboo list depends on
+  // the order in which children finish, so runs are only reproducible without it
+  private synchronized boolean isRecent(SolutionInstance solutionInstance) {
+    return recentInstances.contains(solutionInstance);
+  }
+
+  private synchronized void remember(SolutionInstance solutionInstance) {
+    // solutions are compared by assignment, so an accepted duplicate is only queued once
+    if (recentInstances.add(solutionInstance)) {
+      recentInstancesQueue.offer(solutionInstance);
+      if (recentInstancesQueue.size() > tabooSize) {
+        recentInstances.remove(recentInstancesQueue.poll());
+      }
+    }
+  }
 }
@@ -0,0 +1,99 @@
+package hmo;
+
+import genetic.common.Incumbent;
+import genetic.common.Incumbent.Snapshot;
+import hmo.instance.SolutionInstance;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Writes the best solution so far at fixed times after the start, e.g. after 1 and 5 minutes,
+ * and once more at the end.
+ *
+ * <p>A snapshot copies the current incumbent, runs the finisher and the restriction checks on it
+ * and writes it to {@code <prefix>-<mark>.txt}. All of this happens on a background thread; the
+ * solvers only publish to the incumbent, so they never wait for a snapshot or its I/O.
+ */
+public class AnytimeSnapshots implements AutoCloseable {
+
+  private static final Logger LOG = Logger.getLogger(AnytimeSnapshots.class.toString());
+
+  private final Incumbent<SolutionInstance> incumbent;
+  private final UnaryOperator<SolutionInstance> finisher;
+  private final String prefix;
+  // a single thread, so that finishers of consecutive marks do not compete for the CPU
+  private final ScheduledThreadPoolExecutor executor;
+
+  /** @param finisher improves a copy of the incumbent, which it may modify */
+  public AnytimeSnapshots(Incumbent<SolutionInstance> incumbent,
+      UnaryOperator<SolutionInstance> finisher, String prefix) {
+    this.incumbent = incumbent;
+    this.finisher = finisher;
+    this.prefix = prefix;
+    this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "anytime-snapshots");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // marks which have not been reached by the end are dropped
+    executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /** Schedules a snapshot at each of the given numbers of minutes from now. */
+  public void scheduleAt(int... minutes) {
+    for (int minute : minutes) {
+      executor.schedule(() -> snapshot(minute + "m"), minute, TimeUnit.MINUTES);
+    }
+  }
+
+  /** Takes the final snapshot, after any which is running, and waits for it. */
+  public void finish() {
+    try {
+      executor.submit(() -> snapshot("end")).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOG.warning(String.format("Final snapshot failed: %s", e.getCause()));
+    }
+    executor.shutdown();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void snapshot(String mark) {
+    Snapshot<SolutionInstance> snapshot = incumbent.get();
+    if (snapshot == null) {
+      LOG.info(String.format("[%s] No solution yet.", mark));
+      return;
+    }
+
+    SolutionInstance solution = finisher.apply(new SolutionInstance(snapshot.getValue()));
+    Collection<String> failedChecks = new RestrictionsHelper(solution).getFailedChecks();
+    if (!failedChecks.isEmpty()) {
+      LOG.info(String.format("[%s] Failed checks: %s", mark, String.join(", ", failedChecks)));
+      return;
+    }
+
+    Evaluation evaluation = new Evaluator(solution).evaluate();
+    LOG.info(String.format("[%s] Fitness: %.8f/%.8f = %.4f (from %s)", mark,
+        evaluation.secondGoal(), evaluation.firstGoal(), evaluation.totalGoal(),
+        snapshot.getSource()));
+    String fileName = String.format("%s-%s.txt", prefix, mark);
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+      writer.write(solution.toString());
+      writer.write("\n");
+    } catch (IOException e) {
+      LOG.warning(String.format("[%s] Could not write %s: %s", mark, fileName, e));
+    }
+  }
+}
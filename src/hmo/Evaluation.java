@@ -0,0 +1,99 @@
+package hmo;
+
+import hmo.problem.Problem;
+
+/** All terms of the goals of a single solution, see {@link Evaluator#evaluate()}. */
+public final class Evaluation {
+
+  private final double p1f1;
+  private final double p2f2;
+  private final double p3f3;
+  private final double r1g1;
+  private final double r2g2;
+  private final double r3g3;
+  private final int nUsedVehicles;
+  private final int nVehicles;
+  private final int blockerCount;
+
+  /**
+   * @param f1 number of neighbouring used tracks with different series
+   * @param f3 sum of the free length of used tracks
+   * @param g1 number of neighbouring vehicles on the same track with the same layout type
+   * @param g2 number of neighbouring used tracks where the last and first layout type match
+   * @param nPairs number of neighbouring vehicles on the same track
+   * @param g3 departure gap score of neighbouring vehicles on the same track
+   */
+  Evaluation(Problem problem, int nUsedTracks, int f1, double f3, int g1, int g2, int nPairs,
+      int g3, int nUsedVehicles, int blockerCount) {
+    this.p1f1 = Evaluator.p1f1(f1, nUsedTracks);
+    this.p2f2 = Evaluator.p2f2(nUsedTracks, problem.getNumTracks());
+    this.p3f3 = Evaluator.p3f3(f3, problem);
+    this.r1g1 = Evaluator.r1g1(g1, nUsedTracks, problem.getNumVehicles());
+    this.r2g2 = Evaluator.r2g2(g2, nUsedTracks);
+    this.r3g3 = Evaluator.r3g3(g3, nPairs);
+    this.nUsedVehicles = nUsedVehicles;
+    this.nVehicles = problem.getNumVehicles();
+    this.blockerCount = blockerCount;
+  }
+
+  public double p1f1() {
+    return p1f1;
+  }
+
+  public double p2f2() {
+    return p2f2;
+  }
+
+  public double p3f3() {
+    return p3f3;
+  }
+
+  public double r1g1() {
+    return r1g1;
+  }
+
+  public double r2g2() {
+    return r2g2;
+  }
+
+  public double r3g3() {
+    return r3g3;
+  }
+
+  public int blockerCount() {
+    return blockerCount;
+  }
+
+  public double firstGoal() {
+    return p1f1 + p2f2 + p3f3;
+  }
+
+  public double secondGoal() {
+    return r1g1 + r2g2 + r3g3;
+  }
+
+  public double totalGoal() {
+    return secondGoal() / firstGoal();
+  }
+
+  public double fitnessToMaximize() {
+    return Evaluator.fitnessToMaximize(
+        firstGoal(), secondGoal(), nUsedVehicles, nVehicles, blockerCount);
+  }
+
+  /**
+   * @return key to maximize which, unlike {@link #fitnessToMaximize()}, does not overflow: the
+   *     integer part counts assigned vehicles minus a penalty per blocker, and the fraction grows
+   *     with the total goal
+   */
+  public double rank() {
+    return Evaluator.rank(totalGoal(), nUsedVehicles, nVehicles, blockerCount);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "f1 = %.8f, f2 = %.8f, f3 = %.8f, g1 = %.8f, g2 = %.8f, g3 = %.8f, blockers = %s",
+        p1f1, p2f2, p3f3, r1g1, r2g2, r3g3, blockerCount);
+  }
+}
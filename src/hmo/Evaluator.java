@@ -4,11 +4,11 @@ import hmo.common.TrackUtils;
 import hmo.instance.SolutionInstance;
 import hmo.instance.TrackInstance;
 import hmo.instance.VehicleInstance;
+import hmo.problem.Adjacency;
+import hmo.problem.Problem;
+import hmo.problem.Vehicle;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
 public class Evaluator {
 
@@ -27,58 +27,83 @@ public class Evaluator {
   }
 
   public double totalGoal() {
-    return secondGoal() / firstGoal();
+    return evaluate().totalGoal();
   }
 
   public double fitnessToMaximize() {
-    solutionInstance.resetVehiclePool();
+    return evaluate().fitnessToMaximize();
+  }
 
-    double minimizationGoal = p1f1() + p2f2() + p3f3();
-    double maximizationGoal = r1g1() + r2g2() + r3g3();
-    maximizationGoal = Double.isFinite(maximizationGoal) ? maximizationGoal : 0;
-    minimizationGoal = Double.isFinite(minimizationGoal) ? minimizationGoal : Double.MAX_VALUE;
-    double numUsed = solutionInstance.getAssignedVehicles().size();
-    double numVehicles = solutionInstance.getProblem().getVehicles().size();
-    double numBlockers = blockerCount();
-    double powerValue = 1.2;
-    double usedVehiclesGoal = Math.pow(powerValue, 5 * numUsed / numVehicles);
-    double blockerGoal = Math.pow(powerValue, numVehicles / (numBlockers + 1));
-    double result =
-        maximizationGoal / (minimizationGoal + 1)
-        + usedVehiclesGoal
-        + blockerGoal;
-    return result;
+  /** @return {@link Evaluation#rank()} of the solution. */
+  public static double rank(SolutionInstance solutionInstance) {
+    return new Evaluator(solutionInstance).evaluate().rank();
   }
 
-  private double blockerCount() {
-    double count = 0;
-    Map<Integer, TrackInstance> idToTrackInstance = solutionInstance.getTrackInstances()
-        .stream().collect(Collectors.toMap(ti -> ti.getTrack().getId(), ti -> ti));
+  /**
+   * Computes all goal terms and the blocker count in a single pass over the tracks in ID order,
+   * with the same results as the separate methods.
+   */
+  public Evaluation evaluate() {
+    Problem problem = solutionInstance.getProblem();
+    List<TrackInstance> tracks = solutionInstance.getTrackInstancesInorder();
+    int[] departures = problem.getVehicleDepartures();
+    Adjacency blockedBy = problem.getBlockedByGraph();
 
-    for (Entry<Integer, TrackInstance> idAndTrackInstance : idToTrackInstance.entrySet()) {
-      int id = idAndTrackInstance.getKey();
-      TrackInstance trackInstance = idAndTrackInstance.getValue();
-      if (trackInstance.getParkedVehicles().isEmpty()) {
+    int nUsed = 0;
+    int f1 = 0;
+    double f3 = 0;
+    int g1 = 0;
+    int g2 = 0;
+    int nPairs = 0;
+    int g3 = 0;
+    int blockers = 0;
+    int previousSeries = -1;
+    int previousLayout = -1;
+    for (int j = 0; j < tracks.size(); j++) {
+      TrackInstance track = tracks.get(j);
+      List<VehicleInstance> parked = track.getParkedVehicles();
+      int n = parked.size();
+      if (n == 0) {
         continue;
       }
 
-      int firstDeparture = trackInstance.getParkedVehicles().get(0).getVehicle().getDeparture();
-      for (Integer blockingId : solutionInstance.getProblem().getBlockedBy(id)) {
-        TrackInstance blockingInstance = idToTrackInstance.get(blockingId);
-        int len = blockingInstance.getParkedVehicles().size();
-        if (len == 0) {
-          continue;
+      Vehicle first = parked.get(0).getVehicle();
+      if (nUsed > 0) {
+        if (first.getSeries() != previousSeries) {
+          f1++;
+        }
+        if (first.getLayoutType() == previousLayout) {
+          g2++;
+        }
+      }
+      nUsed++;
+
+      int vehicleLengths = 0;
+      Vehicle previous = null;
+      for (int k = 0; k < n; k++) {
+        Vehicle vehicle = parked.get(k).getVehicle();
+        vehicleLengths += vehicle.getVehicleLength();
+        if (previous != null) {
+          if (vehicle.getLayoutType() == previous.getLayoutType()) {
+            g1++;
+          }
+          nPairs++;
+          g3 += g3(previous.getDeparture(), vehicle.getDeparture());
         }
+        previous = vehicle;
+      }
+      f3 += track.getTrack().getTrackLength()
+          - (vehicleLengths + (n - 1) * TrackUtils.SPACE_BETWEEN_CARS);
+      previousSeries = first.getSeries();
+      previousLayout = previous.getLayoutType();
 
-        List<VehicleInstance> parkedVehicles = blockingInstance
+      int firstDeparture = first.getDeparture();
+      for (int k = blockedBy.start(j); k < blockedBy.end(j); k++) {
+        List<VehicleInstance> blockingVehicles = tracks.get(blockedBy.target(k))
             .getParkedVehicles();
-        for (int i = parkedVehicles.size() - 1; i >= 0; i--) {
-          int lastDeparture = parkedVehicles
-              .get(i)
-              .getVehicle()
-              .getDeparture();
-          if (lastDeparture >= firstDeparture) {
-            count++;
+        for (int i = blockingVehicles.size() - 1; i >= 0; i--) {
+          if (departures[blockingVehicles.get(i).getVehicle().getId() - 1] >= firstDeparture) {
+            blockers++;
           } else {
             break;
           }
@@ -86,7 +111,79 @@ public class Evaluator {
       }
     }
 
-    return count;
+    return new Evaluation(problem, nUsed, f1, f3, g1, g2, nPairs, g3,
+        solutionInstance.getAssignedVehicles().size(), blockers);
+  }
+
+  // The terms below are shared with IncrementalEvaluator, so that both give the same results.
+
+  static double fitnessToMaximize(double minimizationGoal, double maximizationGoal,
+      double numUsed, double numVehicles, double numBlockers) {
+    maximizationGoal = Double.isFinite(maximizationGoal) ? maximizationGoal : 0;
+    minimizationGoal = Double.isFinite(minimizationGoal) ? minimizationGoal : Double.MAX_VALUE;
+    double powerValue = 1.2;
+    double usedVehiclesGoal = Math.pow(powerValue, 5 * numUsed / numVehicles);
+    double blockerGoal = Math.pow(powerValue, numVehicles / (numBlockers + 1));
+    double result =
+        maximizationGoal / (minimizationGoal + 1)
+        + usedVehiclesGoal
+        + blockerGoal;
+    return result;
+  }
+
+  /**
+   * Orders solutions first by blockers, then by assigned vehicles and then by the total goal, like
+   * {@link #fitnessToMaximize(double, double, int, int, int)} does until it overflows.
+   */
+  static double rank(double totalGoal, int numUsed, int numVehicles, int numBlockers) {
+    // maps goal in [0, inf) to [0, 1), so that it only breaks ties
+    double tieBreaker = totalGoal > 0 && Double.isFinite(totalGoal)
+        ? totalGoal / (1 + totalGoal) : 0;
+    return numUsed - (double) numVehicles * numBlockers + tieBreaker;
+  }
+
+  static double p1f1(int f1, int nUsedTracks) {
+    return Math.pow(nUsedTracks - 1, -1) * (double) f1;
+  }
+
+  static double p2f2(int nUsedTracks, int nTotalTracks) {
+    return Math.pow(nTotalTracks, -1) * nUsedTracks;
+  }
+
+  static double p3f3(double f3, Problem problem) {
+    int totalTrackLength = problem.getTotalTrackLength();
+    int totalVehicleLength = problem.getTotalVehicleLength();
+    return Math.pow(totalTrackLength - totalVehicleLength, -1) * f3;
+  }
+
+  static double r1g1(int g1, int nUsedTracks, int nVehicles) {
+    int r1 = nVehicles - nUsedTracks;
+    return Math.pow(r1, -1) * (double) g1;
+  }
+
+  static double r2g2(int g2, int nUsedTracks) {
+    int r2 = nUsedTracks - 1;
+    return Math.pow(r2, -1) * (double) g2;
+  }
+
+  /** @param nPairs number of pairs of neighbouring vehicles on the same track */
+  static double r3g3(int g3, int nPairs) {
+    int r3 = 15 * nPairs;
+    // 0^-1 is infinity
+    int r3or1 = Math.max(1, r3);
+    return Math.pow(r3or1, -1) * (double) g3;
+  }
+
+  /** @return how much the departure gap between neighbouring vehicles adds to g3. */
+  static int g3(int firstDeparture, int secondDeparture) {
+    int diff = secondDeparture - firstDeparture;
+    if (diff < 10) {
+      return -4 * (10 - diff);
+    } else if (diff <= 20) {
+      return 15;
+    } else {
+      return 10;
+    }
   }
 
   public double p1f1() {
@@ -112,18 +209,16 @@ public class Evaluator {
     }
     //System.out.println("p1f1=" + Math.pow(solutionInstance.nUsedTracks() - 1, -1) * (double) f1);
     int usedTracksOr1 = Math.max(1, solutionInstance.nUsedTracks() - 1);
-    return Math.pow(solutionInstance.nUsedTracks() - 1, -1) * (double) f1;
+    return p1f1(f1, solutionInstance.nUsedTracks());
   }
 
   public double p2f2() {
     int nTotalTracks = solutionInstance.getProblem().getTracks().size();
     //System.out.println("p2f2=" + Math.pow(nTotalTracks, -1) * solutionInstance.nUsedTracks());
-    return Math.pow(nTotalTracks, -1) * solutionInstance.nUsedTracks();
+    return p2f2(solutionInstance.nUsedTracks(), nTotalTracks);
   }
 
   public double p3f3() {
-    int totalTrackLength = solutionInstance.getProblem().getTotalTrackLength();
-    int totalVehicleLength = solutionInstance.getProblem().getTotalVehicleLength();
     double f3 = 0;
     for (TrackInstance track : solutionInstance.getTrackInstancesInorder()) {
       if (!track.getParkedVehicles().isEmpty()) {
@@ -131,12 +226,10 @@ public class Evaluator {
       }
     }
     //System.out.println("p3f3=" + Math.pow(totCap - totLen, -1) * f3);
-    return Math.pow(totalTrackLength - totalVehicleLength, -1) * f3;
+    return p3f3(f3, solutionInstance.getProblem());
   }
 
   public double r1g1() {
-    int r1 =
-        solutionInstance.getProblem().getVehicles().size() - solutionInstance.nUsedTracks();
     int g1 = 0;
     for (TrackInstance track : solutionInstance.getTrackInstances()) {
       boolean first = true;
@@ -158,11 +251,11 @@ public class Evaluator {
       }
     }
     //System.out.println("r1g1=" + Math.pow(r1, -1) * (double) g1);
-    return Math.pow(r1, -1) * (double) g1;
+    return r1g1(g1, solutionInstance.nUsedTracks(),
+        solutionInstance.getProblem().getVehicles().size());
   }
 
   public double r2g2() {
-    int r2 = solutionInstance.nUsedTracks() - 1;
     int g2 = 0;
 
     boolean first = true;
@@ -184,32 +277,22 @@ public class Evaluator {
       }
     }
     //System.out.println("r2g2=" + Math.pow(r2, -1) * (double) g2);
-    int r2Or1 = Math.max(1, r2);
-    return Math.pow(r2, -1) * (double) g2;
+    return r2g2(g2, solutionInstance.nUsedTracks());
   }
 
   public double r3g3() {
-    int r3 = 0;
+    int nPairs = 0;
     int g3 = 0;
     for (TrackInstance track : solutionInstance.getTrackInstancesInorder()) {
       int size = track.getParkedVehicles().size();
       for (int i = 0; i < size - 1; i++) {
-        r3 += 15;
+        nPairs++;
         int firstStart = track.getParkedVehicles().get(i).getVehicle().getDeparture();
         int secondStart = track.getParkedVehicles().get(i + 1).getVehicle().getDeparture();
-        int diff = secondStart - firstStart;
-        if (diff < 10) {
-          g3 -= 4 * (10 - diff);
-        } else if (diff <= 20) {
-          g3 += 15;
-        } else {
-          g3 += 10;
-        }
+        g3 += g3(firstStart, secondStart);
       }
     }
 
-    // 0^-1 is infinity
-    int r3or1 = Math.max(1, r3);
-    return Math.pow(r3or1, -1) * (double) g3;
+    return r3g3(g3, nPairs);
   }
 }
@@ -0,0 +1,277 @@
+package hmo;
+
+import hmo.common.Bits;
+import hmo.instance.SolutionInstance;
+import hmo.instance.VehicleInstance;
+import hmo.problem.Adjacency;
+import hmo.problem.Problem;
+import java.util.List;
+
+/**
+ * Same goals as {@link Evaluator}, kept up to date while the solution is modified.
+ *
+ * <p>Every goal is a function of a few integer counts, which are kept per track and summed up.
+ * When a track changes, only its own counts are recomputed, along with the terms it shares with
+ * the neighbouring used tracks in ID order and the blocker counts of the tracks it blocks. Since
+ * the final terms are computed from the same counts by the same functions as in {@link
+ * Evaluator}, the results are exactly the same.
+ *
+ * <p>The evaluator listens to the solution from construction until {@link #detach()}; a solution
+ * has at most one such listener.
+ */
+public class IncrementalEvaluator implements SolutionInstance.TrackListener {
+
+  private final SolutionInstance solutionInstance;
+  private final Problem problem;
+  private final Adjacency blocks;
+  private final Adjacency blockedBy;
+
+  // per track index, only meaningful while the track is used
+  private final int[] size;
+  private final int[] firstSeries;
+  private final int[] firstLayout;
+  private final int[] lastLayout;
+  private final int[] freeHalves;
+  private final int[] g1;
+  private final int[] g3;
+  private final int[] blockers;
+  private final long[] used;
+
+  private int nUsed;
+  private int f1;
+  private long f3Halves;
+  private int g1Sum;
+  private int g2;
+  private int nPairs;
+  private int g3Sum;
+  private int blockerSum;
+
+  public IncrementalEvaluator(SolutionInstance solutionInstance) {
+    this.solutionInstance = solutionInstance;
+    this.problem = solutionInstance.getProblem();
+    this.blocks = problem.getBlocksGraph();
+    this.blockedBy = problem.getBlockedByGraph();
+
+    int nTracks = problem.getNumTracks();
+    this.size = new int[nTracks];
+    this.firstSeries = new int[nTracks];
+    this.firstLayout = new int[nTracks];
+    this.lastLayout = new int[nTracks];
+    this.freeHalves = new int[nTracks];
+    this.g1 = new int[nTracks];
+    this.g3 = new int[nTracks];
+    this.blockers = new int[nTracks];
+    this.used = new long[Bits.words(nTracks)];
+
+    for (int j = 0; j < nTracks; j++) {
+      update(j);
+    }
+    for (int j = 0; j < nTracks; j++) {
+      blockers[j] = countBlockers(j);
+      blockerSum += blockers[j];
+    }
+    solutionInstance.setTrackListener(this);
+  }
+
+  /** Stops following changes of the solution, after which the results are stale. */
+  public void detach() {
+    solutionInstance.setTrackListener(null);
+  }
+
+  @Override
+  public void trackChanged(int trackIndex) {
+    update(trackIndex);
+
+    // a track contributes to the blocker count of itself and of the tracks it blocks
+    updateBlockers(trackIndex);
+    for (int k = blocks.start(trackIndex); k < blocks.end(trackIndex); k++) {
+      updateBlockers(blocks.target(k));
+    }
+  }
+
+  public double firstGoal() {
+    return p1f1() + p2f2() + p3f3();
+  }
+
+  public double secondGoal() {
+    return r1g1() + r2g2() + r3g3();
+  }
+
+  public double totalGoal() {
+    return secondGoal() / firstGoal();
+  }
+
+  /** Same as {@link Evaluator#fitnessToMaximize()}. */
+  public double fitnessToMaximize() {
+    return Evaluator.fitnessToMaximize(firstGoal(), secondGoal(),
+        solutionInstance.getAssignedVehicles().size(), problem.getNumVehicles(), blockerSum);
+  }
+
+  /** Same as {@link Evaluation#rank()}. */
+  public double rank() {
+    return Evaluator.rank(totalGoal(), solutionInstance.getAssignedVehicles().size(),
+        problem.getNumVehicles(), blockerSum);
+  }
+
+  /** @return all terms of the current solution, same as {@link Evaluator#evaluate()}. */
+  public Evaluation evaluate() {
+    return new Evaluation(problem, nUsed, f1, f3Halves / 2.0, g1Sum, g2, nPairs, g3Sum,
+        solutionInstance.getAssignedVehicles().size(), blockerSum);
+  }
+
+  public double p1f1() {
+    return Evaluator.p1f1(f1, nUsed);
+  }
+
+  public double p2f2() {
+    return Evaluator.p2f2(nUsed, problem.getNumTracks());
+  }
+
+  public double p3f3() {
+    // free lengths are multiples of 0.5, so this is exactly the sum Evaluator computes
+    return Evaluator.p3f3(f3Halves / 2.0, problem);
+  }
+
+  public double r1g1() {
+    return Evaluator.r1g1(g1Sum, nUsed, problem.getNumVehicles());
+  }
+
+  public double r2g2() {
+    return Evaluator.r2g2(g2, nUsed);
+  }
+
+  public double r3g3() {
+    return Evaluator.r3g3(g3Sum, nPairs);
+  }
+
+  public int blockerCount() {
+    return blockerSum;
+  }
+
+  private void update(int j) {
+    if (size[j] > 0) {
+      unlink(j);
+      nUsed--;
+      f3Halves -= freeHalves[j];
+      g1Sum -= g1[j];
+      nPairs -= size[j] - 1;
+      g3Sum -= g3[j];
+    }
+
+    List<VehicleInstance> parked =
+        solutionInstance.getInstance(problem.getTracks().get(j)).getParkedVehicles();
+    int n = parked.size();
+    size[j] = n;
+    if (n == 0) {
+      Bits.clear(used, j);
+      return;
+    }
+
+    int[] lengths = problem.getVehicleLengths();
+    int[] layouts = problem.getVehicleLayoutTypes();
+    int[] departures = problem.getVehicleDepartures();
+    int usedHalves = n - 1;
+    int sameLayout = 0;
+    int departureScore = 0;
+    int previous = -1;
+    for (VehicleInstance vehicleInstance : parked) {
+      int i = vehicleInstance.getVehicle().getId() - 1;
+      usedHalves += 2 * lengths[i];
+      if (previous >= 0) {
+        if (layouts[i] == layouts[previous]) {
+          sameLayout++;
+        }
+        departureScore += Evaluator.g3(departures[previous], departures[i]);
+      }
+      previous = i;
+    }
+    int first = parked.get(0).getVehicle().getId() - 1;
+    firstSeries[j] = problem.getVehicleSeries()[first];
+    firstLayout[j] = layouts[first];
+    lastLayout[j] = layouts[previous];
+    freeHalves[j] = 2 * problem.getTrackLengths()[j] - usedHalves;
+    g1[j] = sameLayout;
+    g3[j] = departureScore;
+
+    nUsed++;
+    f3Halves += freeHalves[j];
+    g1Sum += g1[j];
+    nPairs += n - 1;
+    g3Sum += g3[j];
+    Bits.set(used, j);
+    link(j);
+  }
+
+  /** Removes the terms between used track j and its used neighbours, and joins them instead. */
+  private void unlink(int j) {
+    int previous = Bits.prevSetBit(used, j - 1);
+    int next = Bits.nextSetBit(used, j + 1);
+    if (previous >= 0) {
+      addNeighbours(previous, j, -1);
+    }
+    if (next >= 0) {
+      addNeighbours(j, next, -1);
+    }
+    if (previous >= 0 && next >= 0) {
+      addNeighbours(previous, next, 1);
+    }
+  }
+
+  /** Inverse of {@link #unlink}. */
+  private void link(int j) {
+    int previous = Bits.prevSetBit(used, j - 1);
+    int next = Bits.nextSetBit(used, j + 1);
+    if (previous >= 0 && next >= 0) {
+      addNeighbours(previous, next, -1);
+    }
+    if (previous >= 0) {
+      addNeighbours(previous, j, 1);
+    }
+    if (next >= 0) {
+      addNeighbours(j, next, 1);
+    }
+  }
+
+  /** Adds the f1 and g2 terms of neighbouring used tracks a < b, multiplied by sign. */
+  private void addNeighbours(int a, int b, int sign) {
+    if (firstSeries[a] != firstSeries[b]) {
+      f1 += sign;
+    }
+    if (lastLayout[a] == firstLayout[b]) {
+      g2 += sign;
+    }
+  }
+
+  private void updateBlockers(int j) {
+    blockerSum -= blockers[j];
+    blockers[j] = countBlockers(j);
+    blockerSum += blockers[j];
+  }
+
+  /** @return contribution of track j to {@link Evaluator}'s blocker count. */
+  private int countBlockers(int j) {
+    if (size[j] == 0) {
+      return 0;
+    }
+
+    int[] departures = problem.getVehicleDepartures();
+    List<VehicleInstance> parked =
+        solutionInstance.getInstance(problem.getTracks().get(j)).getParkedVehicles();
+    int firstDeparture = departures[parked.get(0).getVehicle().getId() - 1];
+    int count = 0;
+    for (int k = blockedBy.start(j); k < blockedBy.end(j); k++) {
+      List<VehicleInstance> blockingVehicles = solutionInstance
+          .getInstance(problem.getTracks().get(blockedBy.target(k)))
+          .getParkedVehicles();
+      for (int i = blockingVehicles.size() - 1; i >= 0; i--) {
+        int lastDeparture = departures[blockingVehicles.get(i).getVehicle().getId() - 1];
+        if (lastDeparture >= firstDeparture) {
+          count++;
+        } else {
+          break;
+        }
+      }
+    }
+    return count;
+  }
+}
@@ -1,206 +1,153 @@
 package hmo;
 
+import genetic.common.Incumbent;
+import genetic.common.Incumbent.Snapshot;
 import genetic.common.IterationBounds;
+import genetic.common.MigrationInfo;
+import genetic.common.MigrationInfo.Topology;
 import genetic.common.Pair;
 import genetic.common.Parameters;
 import genetic.common.PopulationInfo;
 import hmo.instance.SolutionInstance;
+import hmo.problem.CompiledProblem;
 import hmo.problem.Problem;
 import hmo.problem.Track;
-import hmo.problem.Vehicle;
 import hmo.solver.GAMultiThreaded;
-import hmo.solver.GreedySolver;
+import hmo.solver.GAResults;
+import hmo.solver.TabuSearchSolver;
 
 import java.io.*;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class Main {
 
   private static  final Logger LOG = Logger.getLogger(Main.class.toString());
+  private static final long FLUSH_INTERVAL_SECONDS = 30;
+
+  // last snapshot written by flush
+  private static Snapshot<SolutionInstance> flushed;
 
   public static void main(String[] args) throws IOException {
 //    Path inputFilePath = Paths.get("inputs/dummy-lesstracks.txt");
     Path inputFilePath = Paths.get("instanca-predaja.txt");
     String inputFileName = inputFilePath.getFileName().toString();
-    final FileReader inputReader = new FileReader(inputFilePath.toFile());
 
-    Problem problem = readInput(inputReader);
+    Problem problem = CompiledProblem.loadOrCompile(inputFilePath);
     LOG.info(String.format("Solving problem with %s cars and %s tracks.",
         problem.getVehicles().size(),
         problem.getTracks().size()));
 
+    Incumbent<SolutionInstance> incumbent = new Incumbent<>(Evaluator::rank);
+    String incumbentFileName = String.format("incumbent-%s", inputFileName);
+    ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+    flusher.scheduleWithFixedDelay(() -> flush(incumbent, incumbentFileName),
+        FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+    AnytimeSnapshots snapshots = new AnytimeSnapshots(
+        incumbent,
+        solution -> new TabuSearchSolver(solution, new Random(42L)).publishTo(incumbent).solve(),
+        String.format("outputs/output-%s", inputFileName));
+    snapshots.scheduleAt(1, 5);
+
     ExecutorService executorService = Executors
         .newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-    Iterator<Pair<PopulationInfo, SolutionInstance>> gaSolutionIterator = new GAMultiThreaded()
+    incumbent.addListener(snapshot -> LOG.fine(String.format("New incumbent %s.", snapshot)));
+    GAResults gaResults = new GAMultiThreaded(incumbent)
         .solve(
-            new Random(42L),
+            42L,
             problem,
             executorService,
+            new MigrationInfo(100, 2, Topology.RING),
             new Parameters(
-                    new PopulationInfo(15, 1, 0.99, 0.99),
-                    new IterationBounds(30_000, 1),
-                new Random()),
+                new PopulationInfo(15, 1, 0.99, 0.99),
+                new IterationBounds(30_000, 1)),
             new Parameters(
-                    new PopulationInfo(25, 1, 0.99, 0.9),
-                    new IterationBounds(30_000, 1),
-                    new Random()),
-                new Parameters(
-                        new PopulationInfo(25, 1, 0.99, 0.99),
-                        new IterationBounds(30_000, 1),
-                        new Random()),
-                new Parameters(
-                        new PopulationInfo(25, 2, 0.99, 0.99),
-                new IterationBounds(30_000, 1),
-                new Random())
-        );
+                new PopulationInfo(25, 1, 0.99, 0.9),
+                new IterationBounds(30_000, 1)),
+            new Parameters(
+                new PopulationInfo(25, 1, 0.99, 0.99),
+                new IterationBounds(30_000, 1)),
+            new Parameters(
+                new PopulationInfo(25, 2, 0.99, 0.99),
+                new IterationBounds(30_000, 1)));
 
     double highestGoal = Double.MIN_VALUE;
-    while (gaSolutionIterator.hasNext()) {
-      Pair<PopulationInfo, SolutionInstance> solutionPair = gaSolutionIterator.next();
-      if (solutionPair == null) {
-        continue;
-      }
-
-      PopulationInfo populationInfo = solutionPair.first;
-      SolutionInstance gaSolution = solutionPair.second;
-      Evaluator evaluator = new Evaluator(gaSolution);
-      LOG.info(String.format(
-          "[%s] %s/%s unassigned vehicles and %s/%s used tracks.\n",
-          populationInfo.toString(),
-          gaSolution.getUnassignedVehicles().size(),
-          problem.getVehicles().size(),
-          gaSolution.nUsedTracks(),
-          problem.getTracks().size()));
-
-      // TODO some smarter finisher maybe
-      gaSolution = new GreedySolver(gaSolution, new Random(42L)).solve();
-
-      RestrictionsHelper restrictionsHelper = new RestrictionsHelper(gaSolution);
-      Collection<String> failedChecks = restrictionsHelper.getRestrictionChecks().entrySet()
-          .stream()
-          // collect any test that does not pass
-          .filter(entry -> !entry.getValue().get())
-          .map(Entry::getKey)
-          .collect(Collectors.toList());
-      if (!failedChecks.isEmpty()) {
-        LOG.info(String.format("[%s] Failed checks: %s",
+    // cancels the remaining runs if the loop is left early
+    try (GAResults results = gaResults) {
+      while (results.hasNext()) {
+        Pair<PopulationInfo, SolutionInstance> solutionPair = results.next();
+        PopulationInfo populationInfo = solutionPair.first;
+        SolutionInstance gaSolution = solutionPair.second;
+        LOG.info(String.format(
+            "[%s] %s/%s unassigned vehicles and %s/%s used tracks.\n",
             populationInfo.toString(),
-            String.join(", ", failedChecks)));
-        continue;
-      }
+            gaSolution.getUnassignedVehicles().size(),
+            problem.getVehicles().size(),
+            gaSolution.nUsedTracks(),
+            problem.getTracks().size()));
+
+        // the GA's result is published as it is, and tabu search modifies its input in place
+        gaSolution = new TabuSearchSolver(new SolutionInstance(gaSolution), new Random(42L))
+            .publishTo(incumbent)
+            .solve();
+
+        RestrictionsHelper restrictionsHelper = new RestrictionsHelper(gaSolution);
+        Collection<String> failedChecks = restrictionsHelper.getFailedChecks();
+        if (!failedChecks.isEmpty()) {
+          LOG.info(String.format("[%s] Failed checks: %s",
+              populationInfo.toString(),
+              String.join(", ", failedChecks)));
+          continue;
+        }
 
-      double fst = evaluator.firstGoal();
-      double snd = evaluator.secondGoal();
-      double goal = snd / fst;
-      LOG.info(String.format("[%s] Fitness: %.8f/%.8f = %.4f", populationInfo, snd, fst, goal));
-      //LOG.info(String.format("[%s] Fitness: f1 = %.8f, f2 = %.8f, f3 = %.8f", populationInfo, evaluator.p1f1(), evaluator.p2f2(), evaluator.p3f3()));
-      //LOG.info(String.format("[%s] Fitness: g1 = %.8f, g2 = %.8f, g3 = %.8f", populationInfo, evaluator.r1g1(), evaluator.r2g2(), evaluator.r3g3()));
-      if (goal > highestGoal) {
-        highestGoal = goal;
-        // just overwrite past best solutions. can also be handled better.
-        output(gaSolution, String.format("bestOutput-%s", inputFileName));
-      }
+        Evaluation evaluation = new Evaluator(gaSolution).evaluate();
+        double fst = evaluation.firstGoal();
+        double snd = evaluation.secondGoal();
+        double goal = evaluation.totalGoal();
+        LOG.info(String.format("[%s] Fitness: %.8f/%.8f = %.4f", populationInfo, snd, fst, goal));
+        LOG.fine(String.format("[%s] Fitness: %s", populationInfo, evaluation));
+        if (goal > highestGoal) {
+          highestGoal = goal;
+          // just overwrite past best solutions. can also be handled better.
+          output(gaSolution, String.format("bestOutput-%s", inputFileName));
+        }
 
-      output(gaSolution, String.format(
-          "output-%s-%s.txt", inputFileName, populationInfo.toString()));
+        output(gaSolution, String.format(
+            "output-%s-%s.txt", inputFileName, populationInfo.toString()));
+      }
     }
 
+    flusher.shutdown();
+    flush(incumbent, incumbentFileName);
+    snapshots.finish();
     System.out.println("Done.");
     executorService.shutdown();
   }
 
-  private static Problem readInput(Reader reader) {
-    List<Vehicle> vehicles = new ArrayList<>();
-    List<Track> tracks = new ArrayList<>();
-    Map<Integer, Collection<Integer>> blockades = new HashMap<>();
-    Map<Integer, Collection<Integer>> inverseBlockades = new HashMap<>();
-
-    try (Scanner in = new Scanner(reader)) {
-      int vehicleNum = Integer.parseInt(in.nextLine().trim());
-      int trackNum = Integer.parseInt(in.nextLine().trim());
-
-      in.nextLine();
-      String[] vehicleLengths = in.nextLine().trim().split(" ");
-
-      in.nextLine();
-      String[] series = in.nextLine().trim().split(" ");
-
-      in.nextLine();
-      Map<Integer, Set<Integer>> trackIdToVehicleIds = new HashMap<>();
-      for (int i = 0; i < vehicleNum; i++) {
-        final int vehicleId = i + 1;
-        // limitation equals 1 if car "i" can be placed on track "j"
-        List<Integer> limitation = Arrays.stream(in.nextLine().split(" "))
-            .map(Integer::parseInt).collect(Collectors.toList());
-        assert limitation.size() == trackNum;
-        IntStream.range(1, limitation.size() + 1)
-            .forEach(trackId -> {
-              if (limitation.get(trackId - 1) == 1) {
-                Set<Integer> vehicleIds = trackIdToVehicleIds
-                    .getOrDefault(trackId, new HashSet<>());
-                vehicleIds.add(vehicleId);
-                trackIdToVehicleIds.put(trackId, vehicleIds);
-              }
-            });
-      }
-
-      in.nextLine();
-      String[] trackLengths = in.nextLine().trim().split(" ");
-      in.nextLine();
-      String[] departureTimes = in.nextLine().trim().split(" ");
-      in.nextLine();
-      String[] layoutTypes = in.nextLine().trim().split(" ");
-      in.nextLine();
-
-      // fmt: "blockingTrack listOfBlockedTracks"
-      while (in.hasNext()) {
-        String[] lines = in.nextLine().trim().split(" ");
-        if (lines.length > 0 && !lines[0].isEmpty() && !lines[0].equals("#")) {
-          Collection<Integer> blocks = new HashSet<>();
-          int currentTrackId = Integer.parseInt(lines[0]);
-
-          for (int i = 1; i < lines.length; i++) {
-            int blockedTrackId = Integer.parseInt(lines[i]);
-            blocks.add(blockedTrackId);
-
-            Collection<Integer> inverseList = inverseBlockades
-                .getOrDefault(blockedTrackId, new HashSet<>());
-            inverseList.add(currentTrackId);
-            inverseBlockades.put(blockedTrackId, inverseList);
-          }
-
-          blockades.put(currentTrackId, blocks);
-        }
-      }
-
-      for (int i = 0; i < vehicleNum; i++) {
-        int len = Integer.parseInt(vehicleLengths[i]);
-        int ser = Integer.parseInt(series[i]);
-        int dep = Integer.parseInt(departureTimes[i]);
-        int lay = Integer.parseInt(layoutTypes[i]);
-        int vehicleId = i + 1;
-        vehicles.add(new Vehicle(vehicleId, len, ser, dep, lay));
-      }
-
-      for (int i = 0; i < trackNum; i++) {
-        int len = Integer.parseInt(trackLengths[i].trim());
-        int trackId = i + 1;
-        tracks.add(new Track(trackId, len, trackIdToVehicleIds.get(trackId)));
-      }
-
-      assert vehicles.size() == vehicleNum;
-      assert tracks.size() == trackNum;
+  /**
+   * Writes the current incumbent, unless it was already written. Only reads the incumbent, so
+   * the solvers publishing to it are never held up.
+   */
+  private static synchronized void flush(Incumbent<SolutionInstance> incumbent, String fileName) {
+    Snapshot<SolutionInstance> snapshot = incumbent.get();
+    if (snapshot == null || snapshot == flushed) {
+      return;
+    }
+    try {
+      output(snapshot.getValue(), fileName);
+      flushed = snapshot;
+      LOG.info(String.format("Wrote incumbent %s.", snapshot));
+    } catch (IOException e) {
+      LOG.warning(String.format("Could not write incumbent: %s", e));
     }
-
-    return new Problem(tracks, vehicles, blockades, inverseBlockades);
   }
 
   private static void output(SolutionInstance gaSolution, String fileName) throws IOException {
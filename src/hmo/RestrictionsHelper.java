@@ -3,6 +3,8 @@ package hmo;
 import hmo.instance.SolutionInstance;
 import hmo.instance.TrackInstance;
 import hmo.instance.VehicleInstance;
+import hmo.problem.Adjacency;
+import hmo.problem.Problem;
 import hmo.problem.Track;
 import hmo.problem.Vehicle;
 import java.util.ArrayList;
@@ -12,10 +14,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 public class RestrictionsHelper {
 
@@ -42,6 +42,17 @@ public class RestrictionsHelper {
     return restrictionNameToCheck;
   }
 
+  /** @return names of the checks which do not pass. */
+  public Collection<String> getFailedChecks() {
+    List<String> failedChecks = new ArrayList<>();
+    restrictionNameToCheck.forEach((name, check) -> {
+      if (!check.get()) {
+        failedChecks.add(name);
+      }
+    });
+    return failedChecks;
+  }
+
   public boolean vehicleAppearsOnlyOnce() {
     // test not needed, vehicleInstance can have just one Track
     // -> we are actually testing for duplicate vehicles, so this can happen.
@@ -86,10 +97,9 @@ public class RestrictionsHelper {
 
   public boolean vehiclesAllowedInAssignedTracksTest() {
     for (TrackInstance track : solutionInstance.getTrackInstancesInorder()) {
-      Collection<Integer> allowedVehicles = track.getTrack().getAllowedVehicleIds();
+      Track allowedTrack = track.getTrack();
       for (VehicleInstance vehicle : track.getParkedVehicles()) {
-        int vehicleOrder = vehicle.getVehicle().getId();
-        if (!allowedVehicles.contains(vehicleOrder)) {
+        if (!allowedTrack.allows(vehicle.getVehicle())) {
           return false;
         }
       }
@@ -140,30 +150,29 @@ public class RestrictionsHelper {
   }
 
   public boolean vehiclesInBlockedTracksDepartureTimesTest() {
-    Map<Integer, TrackInstance> idToTrackInstance = solutionInstance.getTrackInstances()
-        .stream().collect(Collectors.toMap(ti -> ti.getTrack().getId(), ti -> ti));
-
-    for (Entry<Integer, TrackInstance> idAndTrackInstance : idToTrackInstance.entrySet()) {
-      int id = idAndTrackInstance.getKey();
-      TrackInstance trackInstance = idAndTrackInstance.getValue();
-
-      if (trackInstance.getParkedVehicles().isEmpty()) {
+    Problem problem = solutionInstance.getProblem();
+    List<Track> tracks = problem.getTracks();
+    int[] departures = problem.getVehicleDepartures();
+    Adjacency blockedBy = problem.getBlockedByGraph();
+
+    for (int j = 0; j < tracks.size(); j++) {
+      List<VehicleInstance> parked = solutionInstance.getInstance(tracks.get(j))
+          .getParkedVehicles();
+      if (parked.isEmpty()) {
         continue;
       }
 
-      int firstDeparture = trackInstance.getParkedVehicles().get(0).getVehicle().getDeparture();
-      for (Integer blockingId : solutionInstance.getProblem().getBlockedBy(id)) {
-        TrackInstance blockingInstance = idToTrackInstance.get(blockingId);
-        int len = blockingInstance.getParkedVehicles().size();
+      int firstDeparture = departures[parked.get(0).getVehicle().getId() - 1];
+      for (int k = blockedBy.start(j); k < blockedBy.end(j); k++) {
+        List<VehicleInstance> blockingVehicles = solutionInstance
+            .getInstance(tracks.get(blockedBy.target(k)))
+            .getParkedVehicles();
+        int len = blockingVehicles.size();
         if (len == 0) {
           continue;
         }
 
-        int lastDeparture = blockingInstance
-            .getParkedVehicles()
-            .get(len - 1)
-            .getVehicle()
-            .getDeparture();
+        int lastDeparture = departures[blockingVehicles.get(len - 1).getVehicle().getId() - 1];
         if (lastDeparture >= firstDeparture) {
           return false;
         }
@@ -174,36 +183,35 @@ public class RestrictionsHelper {
   }
 
   public Map<Track, Collection<Track>> collectBlockers() {
-    Map<Integer, TrackInstance> idToTrackInstance = solutionInstance.getTrackInstances()
-        .stream().collect(Collectors.toMap(ti -> ti.getTrack().getId(), ti -> ti));
+    Problem problem = solutionInstance.getProblem();
+    List<Track> tracks = problem.getTracks();
+    int[] departures = problem.getVehicleDepartures();
+    Adjacency blockedBy = problem.getBlockedByGraph();
     Map<Track, Collection<Track>> result = new HashMap<>();
 
-    for (Entry<Integer, TrackInstance> idAndTrackInstance : idToTrackInstance.entrySet()) {
-      int id = idAndTrackInstance.getKey();
-      TrackInstance trackInstance = idAndTrackInstance.getValue();
-      Collection<Track> blockedBy = new HashSet<>();
-      result.put(trackInstance.getTrack(), blockedBy);
+    for (int j = 0; j < tracks.size(); j++) {
+      Collection<Track> blockers = new HashSet<>();
+      result.put(tracks.get(j), blockers);
 
-      if (trackInstance.getParkedVehicles().isEmpty()) {
+      List<VehicleInstance> parked = solutionInstance.getInstance(tracks.get(j))
+          .getParkedVehicles();
+      if (parked.isEmpty()) {
         continue;
       }
 
-      int firstDeparture = trackInstance.getParkedVehicles().get(0).getVehicle().getDeparture();
-      for (Integer blockingId : solutionInstance.getProblem().getBlockedBy(id)) {
-        TrackInstance blockingInstance = idToTrackInstance.get(blockingId);
-        int len = blockingInstance.getParkedVehicles().size();
+      int firstDeparture = departures[parked.get(0).getVehicle().getId() - 1];
+      for (int k = blockedBy.start(j); k < blockedBy.end(j); k++) {
+        Track blockingTrack = tracks.get(blockedBy.target(k));
+        List<VehicleInstance> blockingVehicles = solutionInstance.getInstance(blockingTrack)
+            .getParkedVehicles();
+        int len = blockingVehicles.size();
         if (len == 0) {
           continue;
         }
 
-        List<VehicleInstance> parkedVehicles = blockingInstance
-            .getParkedVehicles();
-        int lastDeparture = parkedVehicles
-            .get(parkedVehicles.size() - 1)
-            .getVehicle()
-            .getDeparture();
+        int lastDeparture = departures[blockingVehicles.get(len - 1).getVehicle().getId() - 1];
         if (lastDeparture >= firstDeparture) {
-          blockedBy.add(blockingInstance.getTrack());
+          blockers.add(blockingTrack);
         }
       }
     }
@@ -0,0 +1,152 @@
+package hmo.common;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/** Helpers for bitsets stored as plain {@code long[]} words (bit i is bit i % 64 of word i / 64). */
+public final class Bits {
+
+  private Bits() {}
+
+  public static int words(int nBits) {
+    return (nBits + 63) >>> 6;
+  }
+
+  public static boolean get(long[] words, int i) {
+    return (words[i >>> 6] & (1L << i)) != 0;
+  }
+
+  /** Same as {@link #get(long[], int)}, on the row of a matrix which starts at word offset. */
+  public static boolean get(long[] words, int offset, int i) {
+    return (words[offset + (i >>> 6)] & (1L << i)) != 0;
+  }
+
+  public static void set(long[] words, int i) {
+    words[i >>> 6] |= 1L << i;
+  }
+
+  public static void clear(long[] words, int i) {
+    words[i >>> 6] &= ~(1L << i);
+  }
+
+  /** @return index of the first set bit at or after {@code from}, or -1 if there is none. */
+  public static int nextSetBit(long[] words, int from) {
+    int w = from >>> 6;
+    if (w >= words.length) {
+      return -1;
+    }
+    long word = words[w] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++w == words.length) {
+        return -1;
+      }
+      word = words[w];
+    }
+  }
+
+  /** @return index of the last set bit at or before {@code from}, or -1 if there is none. */
+  public static int prevSetBit(long[] words, int from) {
+    if (from < 0) {
+      return -1;
+    }
+    int w = Math.min(from >>> 6, words.length - 1);
+    long word = (from >>> 6) > w ? words[w] : words[w] & (-1L >>> (63 - (from & 63)));
+    while (true) {
+      if (word != 0) {
+        return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+      }
+      if (w-- == 0) {
+        return -1;
+      }
+      word = words[w];
+    }
+  }
+
+  public static int cardinality(long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /** {@code target &= words[offset:offset + target.length]} */
+  public static void and(long[] target, long[] words, int offset) {
+    for (int w = 0; w < target.length; w++) {
+      target[w] &= words[offset + w];
+    }
+  }
+
+  /** @return a full bitset with the first {@code nBits} bits set. */
+  public static long[] allSet(int nBits) {
+    long[] words = new long[words(nBits)];
+    for (int w = 0; w < words.length; w++) {
+      words[w] = -1L;
+    }
+    if ((nBits & 63) != 0) {
+      words[words.length - 1] = (1L << nBits) - 1;
+    }
+    return words;
+  }
+
+  /**
+   * @return unmodifiable view of a bitset which is never modified afterwards, as a set of IDs
+   *     where the ID of bit i is i + 1 (as used by vehicles and tracks).
+   */
+  public static Set<Integer> asIdSet(long[] words) {
+    return new IdSet(words);
+  }
+
+  private static class IdSet extends AbstractSet<Integer> {
+    private final long[] words;
+    private int size = -1;
+
+    IdSet(long[] words) {
+      this.words = words;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Integer)) {
+        return false;
+      }
+      int i = (Integer) o - 1;
+      return i >= 0 && i < (words.length << 6) && get(words, i);
+    }
+
+    @Override
+    public int size() {
+      if (size < 0) {
+        size = cardinality(words);
+      }
+      return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        private int next = nextSetBit(words, 0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Integer next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          int current = next;
+          next = nextSetBit(words, current + 1);
+          return current + 1;
+        }
+      };
+    }
+  }
+}
@@ -22,10 +22,12 @@ public class TrackUtils {
   }
 
   public static boolean allIdsAllowed(List<VehicleInstance> vehicleInstances, Track track) {
-    return vehicleInstances.stream()
-        .map(VehicleInstance::getVehicle)
-        .map(Vehicle::getId)
-        .allMatch(id -> track.getAllowedVehicleIds().contains(id));
+    for (VehicleInstance vehicleInstance : vehicleInstances) {
+      if (!track.allows(vehicleInstance.getVehicle())) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public static boolean validSeries(Vehicle vehicle, TrackInstance trackInstance) {
@@ -34,7 +36,7 @@ public class TrackUtils {
   }
 
   public static boolean validId(Vehicle vehicle, Track track) {
-    return track.getAllowedVehicleIds().contains(vehicle.getId());
+    return track.allows(vehicle);
   }
 
   public static boolean canSetVehicles(List<VehicleInstance> vehicles, Track track) {
@@ -50,6 +50,13 @@ public final class Utils {
     return list.get(random.nextInt(list.size()));
   }
 
+  /** @return well-mixed 64 bits of the value (the SplitMix64 finalizer). */
+  public static long mix64(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+
   public static <T> boolean containsAny(Set<T> set, Collection<T> objects) {
     for (T object : objects) {
       if (set.contains(object)) {
@@ -1,6 +1,6 @@
 package hmo.instance;
 
-import hmo.common.RandomAccessSet;
+import hmo.common.Bits;
 import hmo.common.TrackUtils;
 import hmo.common.Utils;
 import hmo.problem.Problem;
@@ -8,59 +8,98 @@ import hmo.problem.Track;
 import hmo.problem.Vehicle;
 
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Assignment of vehicles to tracks.
+ *
+ * <p>Track instances are copy-on-write: a copy shares all of them with the original, and
+ * whichever of the two first writes to a track clones that track instance. Copying is therefore
+ * O(#tracks), and every later modification only pays for the tracks it touches. Copying only
+ * marks the track instances as shared, which is never undone, so a solution which is not being
+ * modified may be copied from several threads at once.
+ *
+ * <p>Modifications can also be tried out and reverted without copying: {@link #beginMove()}
+ * starts recording every change into a journal, and {@link #rollback(int)} undoes them in reverse
+ * order. Moves may be nested; the journal is dropped once the outermost move is committed.
+ *
+ * <p>Solutions are equal if the same vehicles are parked at the same positions of the same
+ * tracks. The hash is a Zobrist hash of those (vehicle, track, position) triples, updated along
+ * with every track change, so {@link #hashCode()} is O(1).
+ */
 public class SolutionInstance {
 
   private Problem problem;
-  private Map<Vehicle, VehicleInstance> assignedVehicles;
-  private Map<Track, TrackInstance> trackToInstance;
-  private RandomAccessSet<Vehicle> vehiclePool;
+  // by vehicle index (ID - 1), null if unassigned
+  private VehicleInstance[] assignedVehicles;
+  private int nAssignedVehicles;
+  // by track index (ID - 1)
+  private TrackInstance[] trackInstances;
+  // unassigned vehicles, kept in sync with assignedVehicles
+  private VehiclePool vehiclePool;
+  // tracks by their contents, kept in sync with trackInstances
+  private TrackIndex trackIndex;
+  // not copied, since it is bound to this instance
+  private TrackListener trackListener;
+  // Zobrist hash of each track, and of all of them combined
+  private long[] trackHashes;
+  private long fingerprint;
+  // changes since the outermost open move, see #beginMove
+  private final List<Change> journal = new ArrayList<>();
+  private int nOpenMoves;
 
   public SolutionInstance(SolutionInstance other) {
-    this(other.getProblem(), other.trackToInstance.entrySet().stream()
-        .collect(Collectors.toMap(
-            Entry::getKey,
-            e -> new ArrayList<>(e.getValue().getParkedVehicles()))));
+    this.problem = other.problem;
+    this.assignedVehicles = other.assignedVehicles.clone();
+    this.nAssignedVehicles = other.nAssignedVehicles;
+    this.trackInstances = other.trackInstances.clone();
+    // both sides now share every track instance
+    for (TrackInstance trackInstance : trackInstances) {
+      trackInstance.share();
+    }
+    this.vehiclePool = new VehiclePool(other.vehiclePool);
+    vehiclePool.releaseAll();
+    this.trackIndex = new TrackIndex(other.trackIndex);
+    this.trackHashes = other.trackHashes.clone();
+    this.fingerprint = other.fingerprint;
   }
 
   public SolutionInstance(Problem problem) {
     this(problem, Collections.emptyMap());
-//    this.problem = problem;
-//    this.trackToInstance = problem.getTracks().stream().map(TrackInstance::new)
-//        .collect(Collectors.toMap(TrackInstance::getTrack, ti -> ti));
-//    this.assignedVehicles = new HashMap<>(problem.getVehicles().size());
-//    this.vehiclePool = new RandomAccessSet<>(problem.getVehicles());
   }
 
   public void removeVehicle(Track track, Vehicle vehicle) {
-    TrackInstance instance = trackToInstance.get(track);
-    List<VehicleInstance> vehicles = instance.getParkedVehicles()
-            .stream()
-            .filter(vi -> !vi.getVehicle().equals(vehicle))
-            .collect(Collectors.toList());
-    instance.setParkedVehicles(vehicles);
-    this.markUnassigned(vehicle);
-    resetVehiclePool();
+    List<VehicleInstance> parked = getInstance(track).getParkedVehicles();
+    for (int k = 0; k < parked.size(); k++) {
+      if (parked.get(k).getVehicle().equals(vehicle)) {
+        pop(track, k);
+        break;
+      }
+    }
+    markUnassigned(vehicle);
   }
 
   public SolutionInstance(Problem problem, Map<Track, List<VehicleInstance>> tracks) {
     this.problem = problem;
-    this.trackToInstance = problem.getTracks().stream()
-        .map(TrackInstance::new)
-        .peek(ti -> ti.setParkedVehicles(tracks.getOrDefault(ti.getTrack(), new ArrayList<>())))
-        .collect(Collectors.toMap(TrackInstance::getTrack, ti -> ti));
-    this.assignedVehicles = tracks.values().stream().flatMap(Collection::stream)
-        .collect(Collectors.toMap(VehicleInstance::getVehicle, vi -> vi));
-    this.vehiclePool = new RandomAccessSet<>(Utils.difference(
-        problem.getVehicles(),
-        tracks.values().stream()
-            .flatMap(Collection::stream)
-            .map(VehicleInstance::getVehicle)
-            .collect(Collectors.toList())));
+    this.assignedVehicles = new VehicleInstance[problem.getVehicles().size()];
+    this.trackInstances = new TrackInstance[problem.getTracks().size()];
+    this.vehiclePool = new VehiclePool(assignedVehicles.length);
+    this.trackIndex = new TrackIndex(trackInstances.length);
+    this.trackHashes = new long[trackInstances.length];
+    for (Track track : problem.getTracks()) {
+      TrackInstance trackInstance = new TrackInstance(track);
+      trackInstance.setParkedVehicles(new ArrayList<>(
+          tracks.getOrDefault(track, Collections.emptyList())));
+      trackInstances[track.getId() - 1] = trackInstance;
+      trackChanged(track.getId() - 1);
+    }
+    for (List<VehicleInstance> vehicleInstances : tracks.values()) {
+      for (VehicleInstance vehicleInstance : vehicleInstances) {
+        setAssigned(vehicleInstance.getVehicle(), vehicleInstance);
+      }
+    }
   }
 
   public Problem getProblem() {
@@ -68,26 +107,24 @@ public class SolutionInstance {
   }
 
   public Collection<TrackInstance> getTrackInstances() {
-    return trackToInstance.values();
+    return Collections.unmodifiableList(Arrays.asList(trackInstances));
   }
 
   /** @return track instances, ordered by their respective ID low-high. */
   public List<TrackInstance> getTrackInstancesInorder() {
-    return trackToInstance.values().stream()
-        .sorted(Comparator.comparingInt(ti -> ti.getTrack().getId()))
-        .collect(Collectors.toList());
+    return Collections.unmodifiableList(Arrays.asList(trackInstances));
   }
 
   public Vehicle pollUsedVehicle(Track track, Random random) {
-    VehicleInstance vehicleInstance = trackToInstance.get(track).popRandom(random);
-    if (vehicleInstance == null) {
+    if (getInstance(track).nParkedVehicles() == 0) {
       return null;
     }
-    return markUnassigned(vehicleInstance.getVehicle());
+    int index = random.nextInt(getInstance(track).nParkedVehicles());
+    return markUnassigned(pop(track, index).getVehicle());
   }
 
   public Collection<Vehicle> pollUsedVehicles(Track track, Predicate<Vehicle> pollCondition) {
-    TrackInstance trackInstance = trackToInstance.get(track);
+    TrackInstance trackInstance = getInstance(track);
 
     List<Vehicle> vehiclesToReturn = new ArrayList<>();
     List<VehicleInstance> vehiclesRemainingInTrack = new ArrayList<>();
@@ -102,43 +139,66 @@ public class SolutionInstance {
       }
     }
 
-    trackInstance.setParkedVehicles(vehiclesRemainingInTrack);
+    setParkedVehicles(track, vehiclesRemainingInTrack);
     return vehiclesToReturn;
   }
 
   public Collection<VehicleInstance> getVehicleInstances() {
-    return assignedVehicles.values();
+    return getAssignedVehicles();
   }
 
+  /** @return view of the unassigned vehicles which haven't been polled since the last reset. */
   public Collection<Vehicle> getVehiclePool() {
-    return vehiclePool;
+    return new UnassignedView(true);
+  }
+
+  /** @return random unassigned vehicle, pooled or not, or null if all are assigned. */
+  public Vehicle getRandomUnassignedVehicle(Random random) {
+    if (vehiclePool.size() == 0) {
+      return null;
+    }
+    return problem.getVehicles().get(vehiclePool.get(random.nextInt(vehiclePool.size())));
   }
 
+  /** @return random vehicle from the pool, which is removed from it, or null if it is empty. */
   public Vehicle pollUnusedVehicle(Random random) {
-    return vehiclePool.pollRandom(random);
+    int index = vehiclePool.pollRandom(random);
+    return index < 0 ? null : problem.getVehicles().get(index);
   }
 
+  /** @return tracks to which the vehicle can currently be added, ordered by ID. */
   public List<TrackInstance> getAllowedTracks(Vehicle vehicle) {
-    // move this to a map if too slow.
-    return trackToInstance.values().stream()
-        .filter(ti -> ti.canAdd(vehicle))
-        .collect(Collectors.toList());
+    List<TrackInstance> allowed = new ArrayList<>();
+    int i = vehicle.getId() - 1;
+    for (int w = 0; w < trackIndex.words(); w++) {
+      long word = trackIndex.openForSeries(w, vehicle.getSeries())
+          & problem.tracksAllowedForWord(i, w);
+      for (; word != 0; word &= word - 1) {
+        TrackInstance trackInstance = trackInstances[(w << 6) + Long.numberOfTrailingZeros(word)];
+        if (trackInstance.canAdd(vehicle)) {
+          allowed.add(trackInstance);
+        }
+      }
+    }
+    return allowed;
   }
 
   public List<TrackInstance> getTracksWithASingleVehicle() {
-    // move this to a map if too slow.
-    return trackToInstance.values().stream()
-            .filter(ti -> ti.getParkedVehicles().size() == 1)
-            .collect(Collectors.toList());
+    List<TrackInstance> tracks = new ArrayList<>();
+    long[] single = trackIndex.single();
+    for (int j = Bits.nextSetBit(single, 0); j >= 0; j = Bits.nextSetBit(single, j + 1)) {
+      tracks.add(trackInstances[j]);
+    }
+    return tracks;
   }
 
   public TrackInstance getInstance(Track track) {
-    return trackToInstance.get(track);
+    return trackInstances[track.getId() - 1];
   }
 
   public TrackInstance getRandomTrack(Random random) {
-    int nTracks = trackToInstance.size();
-    return trackToInstance.get(problem.getTracks().get(random.nextInt(nTracks)));
+    int nTracks = trackInstances.length;
+    return trackInstances[random.nextInt(nTracks)];
   }
 
   public TrackInstance getRandomTrack(Random random, Integer seriesType) {
@@ -146,34 +206,52 @@ public class SolutionInstance {
       return getRandomTrack(random);
     }
 
-    // move this to a map if too slow.
-    List<TrackInstance> validTracks = trackToInstance.values()
-        .stream()
-        .filter(ti ->
-            ti.getAllowedVehicleSeries() == null
-                || ti.getAllowedVehicleSeries().equals(seriesType))
-        .collect(Collectors.toList());
-    if (validTracks.isEmpty()) {
+    int nTracks = 0;
+    for (int w = 0; w < trackIndex.words(); w++) {
+      nTracks += Long.bitCount(trackIndex.openForSeries(w, seriesType));
+    }
+    if (nTracks == 0) {
       return null;
     }
 
-    int nTracks = validTracks.size();
-    return validTracks.get(random.nextInt(nTracks));
+    // k-th of the empty tracks and the ones with the same series, ordered by ID
+    int k = random.nextInt(nTracks);
+    for (int w = 0; ; w++) {
+      long word = trackIndex.openForSeries(w, seriesType);
+      int count = Long.bitCount(word);
+      if (k < count) {
+        for (; k > 0; k--) {
+          word &= word - 1;
+        }
+        return trackInstances[(w << 6) + Long.numberOfTrailingZeros(word)];
+      }
+      k -= count;
+    }
   }
 
-  public RandomAccessSet<Vehicle> resetVehiclePool() {
-    Collection<Vehicle> unassigned = getUnassignedVehicles();
-    vehiclePool = new RandomAccessSet<>(unassigned);
-    return vehiclePool;
+  /** Puts all unassigned vehicles back into the pool, in O(1). */
+  public Collection<Vehicle> resetVehiclePool() {
+    vehiclePool.releaseAll();
+    return getVehiclePool();
   }
 
-  /** @return all vehicles which haven't been assigned to any tracks so far */
+  /** @return view of all vehicles which haven't been assigned to any tracks so far */
   public Collection<Vehicle> getUnassignedVehicles() {
-    return Utils.difference(problem.getVehicles(), assignedVehicles.keySet());
+    return new UnassignedView(false);
   }
 
   public Collection<VehicleInstance> getAssignedVehicles() {
-    return assignedVehicles.values();
+    return new AbstractCollection<VehicleInstance>() {
+      @Override
+      public Iterator<VehicleInstance> iterator() {
+        return Arrays.stream(assignedVehicles).filter(Objects::nonNull).iterator();
+      }
+
+      @Override
+      public int size() {
+        return nAssignedVehicles;
+      }
+    };
   }
 
   // handled from within TrackInstance: (7) departure of any vehicle that comes first must be
@@ -181,17 +259,25 @@ public class SolutionInstance {
   // not taken into account: (8) blocking tracks must come before the tracks that they block
 
   public boolean canAssign(Vehicle vehicle, Track track) {
-    boolean trackConditions = track.getAllowedVehicleIds().contains(vehicle.getId())
+    boolean trackConditions = problem.isAllowed(vehicle, track)
         && track.getTrackLength() >= vehicle.getVehicleLength();
-    boolean trackInstanceConditions = trackToInstance.get(track).canAdd(vehicle);
-    return !assignedVehicles.containsKey(vehicle) && trackConditions && trackInstanceConditions;
+    boolean trackInstanceConditions = getInstance(track).canAdd(vehicle);
+    return !isAssigned(vehicle) && trackConditions && trackInstanceConditions;
+  }
+
+  public boolean isAssigned(Vehicle vehicle) {
+    return assignedVehicles[vehicle.getId() - 1] != null;
+  }
+
+  /** @return track the vehicle is parked on, or null. */
+  public Track getTrack(Vehicle vehicle) {
+    VehicleInstance vehicleInstance = assignedVehicles[vehicle.getId() - 1];
+    return vehicleInstance == null ? null : vehicleInstance.getTrack();
   }
 
   public Stream<TrackInstance> getBlockers(Vehicle vehicle, Track track) {
-    return problem.getBlockedBy(track.getId())
-        .stream()
-        .map(id -> problem.getTracks().get(id))
-        .map(t -> trackToInstance.get(t))
+    return problem.getBlockedBy(track)
+        .map(this::getInstance)
         .filter(ti -> ti.getParkedVehicles().stream()
             .map(VehicleInstance::getVehicle)
             .map(Vehicle::getDeparture)
@@ -202,41 +288,61 @@ public class SolutionInstance {
 
   public void assign(Vehicle vehicle, Track track) {
     VehicleInstance vehicleInstance = new VehicleInstance(vehicle, track);
-    TrackInstance trackInstance = trackToInstance.get(track);
-    trackInstance.add(vehicleInstance);
+    TrackInstance trackInstance = mutableInstance(track);
+    Change change = record(Change.INSERT, trackInstance, track.getId() - 1);
+    int position = trackInstance.add(vehicleInstance);
+    if (change != null) {
+      change.position = position;
+    }
+    trackChanged(track.getId() - 1);
 
-    markAssigned(vehicle, vehicleInstance);
+    setAssigned(vehicle, vehicleInstance);
   }
 
   public void swapParkedVehicles(Track first, Track second) {
-    TrackInstance firstInstance = trackToInstance.get(first);
-    TrackInstance secondInstance = trackToInstance.get(second);
+    List<VehicleInstance> firstVehicles = getInstance(first).getParkedVehicles();
+    List<VehicleInstance> secondVehicles = getInstance(second).getParkedVehicles();
 
-    List<VehicleInstance> firstVehicles = firstInstance.getParkedVehicles();
-    List<VehicleInstance> secondVehicles = secondInstance.getParkedVehicles();
+    if (TrackUtils.canSetVehicles(firstVehicles, second)
+      && TrackUtils.canSetVehicles(secondVehicles, first)) {
 
-    if (TrackUtils.canSetVehicles(firstVehicles, secondInstance.getTrack())
-      && TrackUtils.canSetVehicles(secondVehicles, firstInstance.getTrack())) {
-
-      firstInstance.setParkedVehicles(secondVehicles.stream()
+      List<VehicleInstance> movedToFirst = secondVehicles.stream()
           .map(vi -> new VehicleInstance(vi.getVehicle(), first))
-          .collect(Collectors.toList()));
-      secondInstance.setParkedVehicles(firstVehicles.stream()
+          .collect(Collectors.toList());
+      List<VehicleInstance> movedToSecond = firstVehicles.stream()
           .map(vi -> new VehicleInstance(vi.getVehicle(), second))
-          .collect(Collectors.toList()));
+          .collect(Collectors.toList());
+      setParkedVehicles(first, movedToFirst);
+      setParkedVehicles(second, movedToSecond);
+      movedToFirst.forEach(vi -> setAssigned(vi.getVehicle(), vi));
+      movedToSecond.forEach(vi -> setAssigned(vi.getVehicle(), vi));
     }
   }
 
   public Stream<Track> tracksForVehicle(Vehicle vehicle) {
-    return trackToInstance.entrySet().stream()
-        .filter(t -> TrackUtils.validId(vehicle, t.getKey()))
-        .filter(t -> t.getValue().canAdd(vehicle))
-        .map(Entry::getKey);
+    return getAllowedTracks(vehicle).stream().map(TrackInstance::getTrack);
+  }
+
+  /**
+   * @return 64-bit hash of which vehicle is parked at which position of which track. Equal
+   *     assignments have equal fingerprints, and different ones almost surely do not.
+   */
+  public long fingerprint() {
+    return fingerprint;
+  }
+
+  private static long trackHash(int trackIndex, List<VehicleInstance> parked) {
+    long hash = 0;
+    for (int k = 0; k < parked.size(); k++) {
+      long vehicle = parked.get(k).getVehicle().getId();
+      hash ^= Utils.mix64((vehicle << 40) ^ ((long) trackIndex << 20) ^ k);
+    }
+    return hash;
   }
 
   public int nUsedTracks() {
     int used = 0;
-    for (TrackInstance track : trackToInstance.values()) {
+    for (TrackInstance track : trackInstances) {
       if (!track.getParkedVehicles().isEmpty()) {
         used++;
       }
@@ -244,39 +350,278 @@ public class SolutionInstance {
     return used;
   }
 
-//  public void setParkedVehicles(Track track, List<VehicleInstance> vehicles) {
-//    TrackInstance trackInstance = new TrackInstance(track);
-//    trackInstance.setParkedVehicles(vehicles);
-//    trackToInstance.put(track, trackInstance);
-//    assignedVehicles.putAll(vehicles.stream().collect(
-//        Collectors.toMap(VehicleInstance::getVehicle, v -> v)));
-//  }
+  /** Notified whenever the contents of a track change, see {@link #setTrackListener}. */
+  public interface TrackListener {
+    void trackChanged(int trackIndex);
+  }
+
+  /** Sets the listener notified after every change to a track, or removes it if null. */
+  public void setTrackListener(TrackListener trackListener) {
+    this.trackListener = trackListener;
+  }
+
+  private void trackChanged(int index) {
+    trackIndex.update(index, trackInstances[index]);
+    // positions after a change shift, so the whole track is rehashed, like it is copied anyway
+    fingerprint ^= trackHashes[index];
+    trackHashes[index] = trackHash(index, trackInstances[index].getParkedVehicles());
+    fingerprint ^= trackHashes[index];
+    if (trackListener != null) {
+      trackListener.trackChanged(index);
+    }
+  }
+
+  /** @return instance of the track which is safe to modify, i.e. not shared with a copy. */
+  private TrackInstance mutableInstance(Track track) {
+    return mutableInstance(track.getId() - 1);
+  }
+
+  private TrackInstance mutableInstance(int index) {
+    if (trackInstances[index].isShared()) {
+      trackInstances[index] = new TrackInstance(trackInstances[index]);
+    }
+    return trackInstances[index];
+  }
+
+  private VehicleInstance pop(Track track, int position) {
+    TrackInstance instance = mutableInstance(track);
+    Change change = record(Change.REMOVE, instance, track.getId() - 1);
+    VehicleInstance vehicleInstance = instance.pop(position);
+    if (change != null) {
+      change.position = position;
+      change.vehicleInstance = vehicleInstance;
+    }
+    trackChanged(track.getId() - 1);
+    return vehicleInstance;
+  }
+
+  private void setParkedVehicles(Track track, List<VehicleInstance> vehicleInstances) {
+    TrackInstance instance = mutableInstance(track);
+    record(Change.REPLACE, instance, track.getId() - 1);
+    instance.setParkedVehicles(vehicleInstances);
+    trackChanged(track.getId() - 1);
+  }
+
+  private void setAssigned(Vehicle vehicle, VehicleInstance vehicleInstance) {
+    int index = vehicle.getId() - 1;
+    if (nOpenMoves > 0) {
+      Change change = new Change(Change.VEHICLE, index);
+      change.vehicleInstance = assignedVehicles[index];
+      change.pooled = vehiclePool.isPooled(index);
+      journal.add(change);
+    }
+    writeAssigned(index, vehicleInstance);
+  }
 
-  private void markAssigned(Vehicle vehicle, VehicleInstance vehicleInstance) {
-    assignedVehicles.put(vehicle, vehicleInstance);
-    vehiclePool.remove(vehicle);
+  private void writeAssigned(int index, VehicleInstance vehicleInstance) {
+    if (assignedVehicles[index] != null) {
+      nAssignedVehicles--;
+      vehiclePool.add(index);
+    }
+    if (vehicleInstance != null) {
+      nAssignedVehicles++;
+      vehiclePool.remove(index);
+    }
+    assignedVehicles[index] = vehicleInstance;
   }
 
   private Vehicle markUnassigned(Vehicle vehicle) {
-    assignedVehicles.remove(vehicle);
-    vehiclePool.add(vehicle);
+    setAssigned(vehicle, null);
+    vehiclePool.release(vehicle.getId() - 1);
 
     return vehicle;
   }
 
+  /**
+   * Starts recording a move, which must be ended with either {@link #commit(int)} or {@link
+   * #rollback(int)} with the returned token. Moves can be nested, as long as they are ended in
+   * reverse order.
+   *
+   * @return token identifying the state before the move.
+   */
+  public int beginMove() {
+    nOpenMoves++;
+    return journal.size();
+  }
+
+  /** Keeps all changes made since the move identified by the token was started. */
+  public void commit(int token) {
+    assert nOpenMoves > 0 && token <= journal.size();
+    if (--nOpenMoves == 0) {
+      journal.clear();
+    }
+  }
+
+  /** Reverts all changes made since the move identified by the token was started. */
+  public void rollback(int token) {
+    assert nOpenMoves > 0 && token <= journal.size();
+    for (int k = journal.size() - 1; k >= token; k--) {
+      undo(journal.remove(k));
+    }
+    nOpenMoves--;
+  }
+
+  private void undo(Change change) {
+    if (change.kind == Change.VEHICLE) {
+      writeAssigned(change.index, change.vehicleInstance);
+      if (change.pooled) {
+        vehiclePool.release(change.index);
+      } else {
+        vehiclePool.hold(change.index);
+      }
+      return;
+    }
+
+    TrackInstance instance = mutableInstance(change.index);
+    List<VehicleInstance> parked = instance.parkedVehiclesList();
+    if (change.kind == Change.INSERT) {
+      parked.remove(change.position);
+    } else if (change.kind == Change.REMOVE) {
+      parked.add(change.position, change.vehicleInstance);
+    } else {
+      parked = change.parkedVehicles;
+    }
+    instance.restore(parked, change.availableSpace, change.allowedVehicleSeries);
+    trackChanged(change.index);
+  }
+
+  /** @return the journal entry for a change about to be made to the track, or null. */
+  private Change record(int kind, TrackInstance instance, int trackIndex) {
+    if (nOpenMoves == 0) {
+      return null;
+    }
+    Change change = new Change(kind, trackIndex);
+    change.availableSpace = instance.getAvailableSpace();
+    change.allowedVehicleSeries = instance.getAllowedVehicleSeries();
+    if (kind == Change.REPLACE) {
+      // the list itself is never modified, only replaced
+      change.parkedVehicles = instance.parkedVehiclesList();
+    }
+    journal.add(change);
+    return change;
+  }
+
+  /** Unassigned vehicles, or only those still in the pool. */
+  private class UnassignedView extends AbstractCollection<Vehicle> {
+    private final boolean pooledOnly;
+
+    UnassignedView(boolean pooledOnly) {
+      this.pooledOnly = pooledOnly;
+    }
+
+    @Override
+    public int size() {
+      return pooledOnly ? vehiclePool.nPooled() : vehiclePool.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Vehicle)) {
+        return false;
+      }
+      int index = ((Vehicle) o).getId() - 1;
+      if (index < 0 || index >= assignedVehicles.length) {
+        return false;
+      }
+      return pooledOnly ? vehiclePool.isPooled(index) : vehiclePool.contains(index);
+    }
+
+    @Override
+    public Iterator<Vehicle> iterator() {
+      return new Iterator<Vehicle>() {
+        private int k = 0;
+
+        @Override
+        public boolean hasNext() {
+          return k < size();
+        }
+
+        @Override
+        public Vehicle next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return problem.getVehicles().get(vehiclePool.get(k++));
+        }
+      };
+    }
+  }
+
+  /** Single journal entry, holding what is needed to revert it. */
+  private static class Change {
+    static final int INSERT = 0;
+    static final int REMOVE = 1;
+    static final int REPLACE = 2;
+    static final int VEHICLE = 3;
+
+    final int kind;
+    // track index, or vehicle index for VEHICLE
+    final int index;
+    int position;
+    VehicleInstance vehicleInstance;
+    List<VehicleInstance> parkedVehicles;
+    double availableSpace;
+    Integer allowedVehicleSeries;
+    boolean pooled;
+
+    Change(int kind, int index) {
+      this.kind = kind;
+      this.index = index;
+    }
+  }
+
   public TrackInstance removeParkedVehiclesFromRandomTrack(Random random) {
     return removeParkedVehicles(Utils.randomElement(problem.getTracks(), random));
   }
 
   public TrackInstance removeParkedVehicles(Track track) {
-    TrackInstance instance = trackToInstance.get(track);
-    List<VehicleInstance> vehicles = instance.getParkedVehicles();
-    instance.setParkedVehicles(new ArrayList<>());
+    List<VehicleInstance> vehicles = getInstance(track).getParkedVehicles();
+    setParkedVehicles(track, new ArrayList<>());
 
     vehicles.stream().map(VehicleInstance::getVehicle)
         .forEach(this::markUnassigned);
     resetVehiclePool();
-    return instance;
+    return getInstance(track);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SolutionInstance)) {
+      return false;
+    }
+    SolutionInstance other = (SolutionInstance) o;
+    if (problem != other.problem || fingerprint != other.fingerprint
+        || nAssignedVehicles != other.nAssignedVehicles) {
+      return false;
+    }
+    for (int j = 0; j < trackInstances.length; j++) {
+      // copies share track instances until either side modifies them
+      if (trackInstances[j] == other.trackInstances[j]) {
+        continue;
+      }
+      if (trackHashes[j] != other.trackHashes[j]) {
+        return false;
+      }
+      List<VehicleInstance> parked = trackInstances[j].getParkedVehicles();
+      List<VehicleInstance> otherParked = other.trackInstances[j].getParkedVehicles();
+      if (parked.size() != otherParked.size()) {
+        return false;
+      }
+      for (int k = 0; k < parked.size(); k++) {
+        if (parked.get(k).getVehicle().getId() != otherParked.get(k).getVehicle().getId()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(fingerprint);
   }
 
   @Override
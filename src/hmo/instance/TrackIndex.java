@@ -0,0 +1,89 @@
+package hmo.instance;
+
+import hmo.common.Bits;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Live bitsets of track indices of a {@link SolutionInstance}: empty tracks, tracks with a single
+ * vehicle and non-empty tracks by the series of their vehicles. Kept up to date through {@link
+ * #update}, which has to be called whenever the contents of a track change.
+ */
+final class TrackIndex {
+
+  private static final int NONE = -1;
+
+  private final int words;
+  private final long[] empty;
+  private final long[] single;
+  private final Map<Integer, long[]> bySeries;
+  // last seen state of each track, to know which bits to clear
+  private final int[] trackSize;
+  private final int[] trackSeries;
+
+  TrackIndex(int nTracks) {
+    this.words = Bits.words(nTracks);
+    this.empty = Bits.allSet(nTracks);
+    this.single = new long[words];
+    this.bySeries = new HashMap<>();
+    this.trackSize = new int[nTracks];
+    this.trackSeries = new int[nTracks];
+    Arrays.fill(trackSeries, NONE);
+  }
+
+  TrackIndex(TrackIndex other) {
+    this.words = other.words;
+    this.empty = other.empty.clone();
+    this.single = other.single.clone();
+    this.bySeries = new HashMap<>();
+    for (Map.Entry<Integer, long[]> entry : other.bySeries.entrySet()) {
+      bySeries.put(entry.getKey(), entry.getValue().clone());
+    }
+    this.trackSize = other.trackSize.clone();
+    this.trackSeries = other.trackSeries.clone();
+  }
+
+  void update(int j, TrackInstance trackInstance) {
+    int size = trackInstance.nParkedVehicles();
+    Integer allowedSeries = trackInstance.getAllowedVehicleSeries();
+    int series = size == 0 || allowedSeries == null ? NONE : allowedSeries;
+    if (size == trackSize[j] && series == trackSeries[j]) {
+      return;
+    }
+
+    if (trackSeries[j] != NONE) {
+      Bits.clear(bySeries.get(trackSeries[j]), j);
+    }
+    if (series != NONE) {
+      Bits.set(bySeries.computeIfAbsent(series, s -> new long[words]), j);
+    }
+    if (size == 0) {
+      Bits.set(empty, j);
+    } else {
+      Bits.clear(empty, j);
+    }
+    if (size == 1) {
+      Bits.set(single, j);
+    } else {
+      Bits.clear(single, j);
+    }
+    trackSize[j] = size;
+    trackSeries[j] = series;
+  }
+
+  int words() {
+    return words;
+  }
+
+  /** @return w-th word of the bitset of tracks which could accept a vehicle of the series. */
+  long openForSeries(int w, int series) {
+    long[] withSeries = bySeries.get(series);
+    return withSeries == null ? empty[w] : empty[w] | withSeries[w];
+  }
+
+  /** @return bitset of tracks with a single vehicle. Must not be modified. */
+  long[] single() {
+    return single;
+  }
+}
@@ -6,7 +6,6 @@ import hmo.problem.Vehicle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 public class TrackInstance {
@@ -15,6 +14,8 @@ public class TrackInstance {
   private double availableSpace;
   private Integer allowedVehicleSeries;
   private List<VehicleInstance> parkedVehicles;
+  // set once the instance is shared by copies of a solution, after which it is never modified
+  private volatile boolean shared;
 
   public TrackInstance(Track track) {
     this(track, Collections.emptyList());
@@ -28,6 +29,24 @@ public class TrackInstance {
         ? null : parkedVehicles.get(0).getVehicle().getSeries();
   }
 
+  /** Copies the other instance, so that either can be modified independently. */
+  TrackInstance(TrackInstance other) {
+    this.track = other.track;
+    this.availableSpace = other.availableSpace;
+    this.allowedVehicleSeries = other.allowedVehicleSeries;
+    this.parkedVehicles = new ArrayList<>(other.parkedVehicles);
+  }
+
+  /** Marks the instance as shared by several solutions; never undone. */
+  void share() {
+    shared = true;
+  }
+
+  /** @return whether the instance has to be copied before it is modified. */
+  boolean isShared() {
+    return shared;
+  }
+
   public Integer getAllowedVehicleSeries() {
     return allowedVehicleSeries;
   }
@@ -36,7 +55,8 @@ public class TrackInstance {
     return track;
   }
 
-  boolean add(VehicleInstance vehicleInstance) {
+  /** @return position at which the vehicle was inserted. */
+  int add(VehicleInstance vehicleInstance) {
     assert canAdd(vehicleInstance.getVehicle());
 
     // condition (7): vehicles should be sorted in departing order
@@ -45,17 +65,10 @@ public class TrackInstance {
 
   public boolean canAdd(Vehicle vehicle) {
     return availableSpace >= vehicle.getVehicleLength() + deltaSpaceForNextVehicle()
-        && track.getAllowedVehicleIds().contains(vehicle.getId())
+        && track.allows(vehicle)
         && (allowedVehicleSeries == null || allowedVehicleSeries == vehicle.getSeries());
   }
 
-  VehicleInstance popRandom(Random random) {
-    if (nParkedVehicles() == 0) {
-      return null;
-    }
-    return pop(random.nextInt(nParkedVehicles()));
-  }
-
   VehicleInstance pop(int index) {
     VehicleInstance vehicleInstance = parkedVehicles.remove(index);
     availableSpace += vehicleInstance.getVehicle().getVehicleLength();
@@ -80,6 +93,19 @@ public class TrackInstance {
     return Collections.unmodifiableList(parkedVehicles);
   }
 
+  /** @return the backing list of parked vehicles, which is replaced (not modified) on set. */
+  List<VehicleInstance> parkedVehiclesList() {
+    return parkedVehicles;
+  }
+
+  /** Restores the state as it was before a modification, see {@link SolutionInstance}. */
+  void restore(
+      List<VehicleInstance> parkedVehicles, double availableSpace, Integer allowedVehicleSeries) {
+    this.parkedVehicles = parkedVehicles;
+    this.availableSpace = availableSpace;
+    this.allowedVehicleSeries = allowedVehicleSeries;
+  }
+
   boolean setParkedVehicles(List<VehicleInstance> vehicleInstances) {
     double parkingLength = TrackUtils.parkLength(vehicleInstances);
     if (parkingLength > track.getTrackLength()
@@ -104,7 +130,7 @@ public class TrackInstance {
   }
 
   /** assumes all validity checks have already been performed. */
-  private boolean insertSortedByDeparture(VehicleInstance vehicleInstance) {
+  private int insertSortedByDeparture(VehicleInstance vehicleInstance) {
     Vehicle vehicleToInsert = vehicleInstance.getVehicle();
 
     int i = 0;
@@ -115,10 +141,11 @@ public class TrackInstance {
       }
     }
 
-    parkedVehicles.add(i, vehicleInstance);
+    // the gap has to be accounted for before the vehicle is added
     availableSpace -= (vehicleToInsert.getVehicleLength() + deltaSpaceForNextVehicle());
+    parkedVehicles.add(i, vehicleInstance);
     allowedVehicleSeries = vehicleToInsert.getSeries();
-    return true;
+    return i;
   }
 
   private double deltaSpaceForNextVehicle() {
@@ -0,0 +1,124 @@
+package hmo.instance;
+
+import java.util.Random;
+
+/**
+ * Unassigned vehicle indices of a {@link SolutionInstance}, with O(1) add, remove and random
+ * sampling and no rebuilds.
+ *
+ * <p>Indices are kept in {@code elements[0 .. size)}, and {@code positions} maps each index back
+ * to its place there (or -1). The prefix {@code elements[0 .. nPooled)} is the pool proper, from
+ * which vehicles are drawn; the rest are vehicles which have been drawn but not yet assigned.
+ */
+final class VehiclePool {
+
+  private static final int ABSENT = -1;
+
+  private final int[] elements;
+  private final int[] positions;
+  private int size;
+  private int nPooled;
+
+  /** Creates a pool in which all vehicles are unassigned and pooled. */
+  VehiclePool(int nVehicles) {
+    this.elements = new int[nVehicles];
+    this.positions = new int[nVehicles];
+    for (int i = 0; i < nVehicles; i++) {
+      elements[i] = i;
+      positions[i] = i;
+    }
+    this.size = nVehicles;
+    this.nPooled = nVehicles;
+  }
+
+  VehiclePool(VehiclePool other) {
+    this.elements = other.elements.clone();
+    this.positions = other.positions.clone();
+    this.size = other.size;
+    this.nPooled = other.nPooled;
+  }
+
+  /** @return number of unassigned vehicles. */
+  int size() {
+    return size;
+  }
+
+  /** @return number of unassigned vehicles which can still be drawn. */
+  int nPooled() {
+    return nPooled;
+  }
+
+  /** @return k-th unassigned vehicle index; the pooled ones come first. */
+  int get(int k) {
+    return elements[k];
+  }
+
+  boolean contains(int i) {
+    return positions[i] != ABSENT;
+  }
+
+  boolean isPooled(int i) {
+    return positions[i] != ABSENT && positions[i] < nPooled;
+  }
+
+  /** Adds an unassigned vehicle, not yet pooled. */
+  void add(int i) {
+    if (positions[i] == ABSENT) {
+      elements[size] = i;
+      positions[i] = size++;
+    }
+  }
+
+  /** Removes a vehicle which has been assigned. */
+  void remove(int i) {
+    if (positions[i] == ABSENT) {
+      return;
+    }
+    hold(i);
+    swap(positions[i], --size);
+    positions[i] = ABSENT;
+  }
+
+  /** Makes an unassigned vehicle available for drawing. */
+  void release(int i) {
+    int position = positions[i];
+    if (position != ABSENT && position >= nPooled) {
+      swap(position, nPooled++);
+    }
+  }
+
+  /** Makes an unassigned vehicle unavailable for drawing. */
+  void hold(int i) {
+    int position = positions[i];
+    if (position != ABSENT && position < nPooled) {
+      swap(position, --nPooled);
+    }
+  }
+
+  /** @return random pooled vehicle index, which is no longer pooled, or -1 if there is none. */
+  int pollRandom(Random random) {
+    if (nPooled == 0) {
+      return ABSENT;
+    }
+    int i = elements[random.nextInt(nPooled)];
+    hold(i);
+    return i;
+  }
+
+  /** Makes all unassigned vehicles available for drawing again. */
+  void releaseAll() {
+    // no write when nothing changes, so that released pools of shared solutions stay read-only
+    if (nPooled != size) {
+      nPooled = size;
+    }
+  }
+
+  private void swap(int a, int b) {
+    int first = elements[a];
+    int second = elements[b];
+    elements[a] = second;
+    elements[b] = first;
+    positions[second] = a;
+    positions[first] = b;
+  }
+}
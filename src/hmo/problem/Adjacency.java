@@ -0,0 +1,129 @@
+package hmo.problem;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable directed graph over track indices in compressed sparse row form: the neighbours of
+ * node i are {@code targets[offsets[i]] .. targets[offsets[i + 1] - 1]}, sorted ascending.
+ */
+public class Adjacency {
+
+  private final int[] offsets;
+  private final int[] targets;
+
+  public Adjacency(int[] offsets, int[] targets) {
+    this.offsets = offsets;
+    this.targets = targets;
+  }
+
+  /** @param idToIds map from a node ID to neighbour IDs, where ID is index + 1 */
+  public static Adjacency fromIds(int nNodes, Map<Integer, Collection<Integer>> idToIds) {
+    int[] offsets = new int[nNodes + 1];
+    for (int i = 0; i < nNodes; i++) {
+      Collection<Integer> ids = idToIds.get(i + 1);
+      offsets[i + 1] = offsets[i] + (ids == null ? 0 : ids.size());
+    }
+
+    int[] targets = new int[offsets[nNodes]];
+    for (int i = 0; i < nNodes; i++) {
+      Collection<Integer> ids = idToIds.get(i + 1);
+      if (ids == null) {
+        continue;
+      }
+      int k = offsets[i];
+      for (int id : ids) {
+        targets[k++] = id - 1;
+      }
+      Arrays.sort(targets, offsets[i], k);
+    }
+    return new Adjacency(offsets, targets);
+  }
+
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  /** @return position of the first neighbour of node i in {@link #target}. */
+  public int start(int i) {
+    return offsets[i];
+  }
+
+  /** @return position after the last neighbour of node i in {@link #target}. */
+  public int end(int i) {
+    return offsets[i + 1];
+  }
+
+  public int target(int k) {
+    return targets[k];
+  }
+
+  public int degree(int i) {
+    return offsets[i + 1] - offsets[i];
+  }
+
+  public boolean contains(int i, int j) {
+    return Arrays.binarySearch(targets, offsets[i], offsets[i + 1], j) >= 0;
+  }
+
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  int[] getTargets() {
+    return targets;
+  }
+
+  /** @return unmodifiable view of the neighbour IDs (index + 1) of node with the given ID. */
+  public Collection<Integer> neighbourIds(int id) {
+    if (id < 1 || id > size()) {
+      return new NeighbourIds(0, 0);
+    }
+    return new NeighbourIds(offsets[id - 1], offsets[id]);
+  }
+
+  private class NeighbourIds extends AbstractCollection<Integer> {
+    private final int from;
+    private final int to;
+
+    NeighbourIds(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof Integer
+          && Arrays.binarySearch(targets, from, to, (Integer) o - 1) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        private int k = from;
+
+        @Override
+        public boolean hasNext() {
+          return k < to;
+        }
+
+        @Override
+        public Integer next() {
+          if (k >= to) {
+            throw new NoSuchElementException();
+          }
+          return targets[k++] + 1;
+        }
+      };
+    }
+  }
+}
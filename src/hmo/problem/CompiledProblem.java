@@ -0,0 +1,200 @@
+package hmo.problem;
+
+import hmo.common.Bits;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Versioned binary ("compiled") form of a {@link Problem}, so that repeated runs on the same
+ * instance don't have to re-parse the text input.
+ *
+ * <p>Layout (big endian), all sections are 8-byte aligned:
+ * <pre>
+ *   int magic, int version, int nVehicles, int nTracks
+ *   int[nVehicles] vehicle lengths, series, departures, layout types
+ *   int[nTracks] track lengths
+ *   long[nTracks * ceil(nVehicles / 64)] compatibility, bit (i % 64) of word (j * w + i / 64)
+ *     is set if vehicle with index i is allowed on track with index j
+ *   int[nTracks + 1] offsets, int[] targets: tracks blocked by each track (CSR, 0-based)
+ *   int[nTracks + 1] offsets, int[] targets: tracks blocking each track (CSR, 0-based)
+ * </pre>
+ */
+public final class CompiledProblem {
+
+  private static final Logger LOG = Logger.getLogger(CompiledProblem.class.toString());
+
+  static final int MAGIC = 0x484D4F42; // "HMOB"
+  static final int VERSION = 1;
+  public static final String EXTENSION = ".hmob";
+
+  private CompiledProblem() {}
+
+  /**
+   * Loads the compiled form of {@code textInput} if it is up to date, otherwise parses the text
+   * input and (re)writes the compiled form next to it.
+   */
+  public static Problem loadOrCompile(Path textInput) throws IOException {
+    Path compiled = Paths.get(textInput.toString() + EXTENSION);
+    if (Files.exists(compiled) && Files.getLastModifiedTime(compiled)
+        .compareTo(Files.getLastModifiedTime(textInput)) >= 0) {
+      try {
+        return load(compiled);
+      } catch (IOException e) {
+        LOG.warning(String.format("Ignoring unreadable %s: %s", compiled, e.getMessage()));
+      }
+    }
+
+    Problem problem = MappedProblemReader.read(textInput);
+    try {
+      write(problem, compiled);
+    } catch (IOException e) {
+      LOG.warning(String.format("Could not write %s: %s", compiled, e.getMessage()));
+    }
+    return problem;
+  }
+
+  public static void write(Problem problem, Path path) throws IOException {
+    int nVehicles = problem.getNumVehicles();
+    int nTracks = problem.getNumTracks();
+    int words = Bits.words(nVehicles);
+    Adjacency blocks = problem.getBlocksGraph();
+    Adjacency blockedBy = problem.getBlockedByGraph();
+
+    long size = align(Integer.BYTES * (4 + 4L * nVehicles + nTracks))
+        + align(Long.BYTES * (long) nTracks * words)
+        + align(Integer.BYTES * (nTracks + 1L + blocks.getTargets().length))
+        + align(Integer.BYTES * (nTracks + 1L + blockedBy.getTargets().length));
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Problem too large to compile.");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(nVehicles).putInt(nTracks);
+    putInts(buffer, problem.getVehicleLengths());
+    putInts(buffer, problem.getVehicleSeries());
+    putInts(buffer, problem.getVehicleDepartures());
+    putInts(buffer, problem.getVehicleLayoutTypes());
+    putInts(buffer, problem.getTrackLengths());
+    pad(buffer);
+
+    buffer.asLongBuffer().put(problem.getTrackAllowsVehicles());
+    buffer.position(buffer.position() + Long.BYTES * nTracks * words);
+
+    putAdjacency(buffer, blocks);
+    putAdjacency(buffer, blockedBy);
+    buffer.flip();
+
+    // write to a temporary file first so that concurrent runs never map a partial file
+    Path temporary = Files.createTempFile(
+        path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temporary, path,
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  public static Problem load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("Compiled problem %s is too large.", path));
+      }
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+      return load(buffer);
+    }
+  }
+
+  public static Problem load(ByteBuffer buffer) throws IOException {
+    try {
+      return read(buffer);
+    } catch (RuntimeException e) {
+      throw new IOException("Malformed compiled problem.", e);
+    }
+  }
+
+  private static Problem read(ByteBuffer buffer) throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a compiled problem.");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException(String.format(
+          "Unsupported compiled problem version %s (expected %s).", version, VERSION));
+    }
+
+    int nVehicles = buffer.getInt();
+    int nTracks = buffer.getInt();
+    int words = Bits.words(nVehicles);
+
+    int[] vehicleLengths = getInts(buffer, nVehicles);
+    int[] series = getInts(buffer, nVehicles);
+    int[] departures = getInts(buffer, nVehicles);
+    int[] layoutTypes = getInts(buffer, nVehicles);
+    int[] trackLengths = getInts(buffer, nTracks);
+    skipPadding(buffer);
+
+    long[] compatibility = new long[nTracks * words];
+    LongBuffer longs = buffer.asLongBuffer();
+    longs.get(compatibility);
+    buffer.position(buffer.position() + Long.BYTES * compatibility.length);
+
+    Adjacency blocks = getAdjacency(buffer, nTracks);
+    Adjacency blockedBy = getAdjacency(buffer, nTracks);
+    return new Problem(vehicleLengths, series, departures, layoutTypes, trackLengths,
+        compatibility, blocks, blockedBy);
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  private static void pad(ByteBuffer buffer) {
+    while (buffer.position() % 8 != 0) {
+      buffer.put((byte) 0);
+    }
+  }
+
+  private static void skipPadding(ByteBuffer buffer) {
+    buffer.position((int) align(buffer.position()));
+  }
+
+  private static void putAdjacency(ByteBuffer buffer, Adjacency adjacency) {
+    putInts(buffer, adjacency.getOffsets());
+    putInts(buffer, adjacency.getTargets());
+    pad(buffer);
+  }
+
+  private static Adjacency getAdjacency(ByteBuffer buffer, int n) {
+    int[] offsets = getInts(buffer, n + 1);
+    int[] targets = getInts(buffer, offsets[n]);
+    skipPadding(buffer);
+    return new Adjacency(offsets, targets);
+  }
+
+  private static void putInts(ByteBuffer buffer, int[] values) {
+    buffer.asIntBuffer().put(values);
+    buffer.position(buffer.position() + Integer.BYTES * values.length);
+  }
+
+  private static int[] getInts(ByteBuffer buffer, int n) {
+    int[] result = new int[n];
+    IntBuffer ints = buffer.asIntBuffer();
+    ints.get(result);
+    buffer.position(buffer.position() + Integer.BYTES * n);
+    return result;
+  }
+}
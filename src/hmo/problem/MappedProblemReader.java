@@ -0,0 +1,155 @@
+package hmo.problem;
+
+import hmo.common.Bits;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Instance parser which memory-maps the input file and reads integers directly from its bytes
+ * into primitive arrays. Produces the same {@link Problem} as {@link ScannerProblemReader}.
+ *
+ * <p>Whitespace between numbers is insignificant, except in the trailing blocking section where
+ * every line has the format "blockingTrack listOfBlockedTracks". Anything following a '#' is
+ * treated as a comment up to the end of the line.
+ */
+public final class MappedProblemReader {
+
+  private final ByteBuffer buffer;
+  private final int limit;
+  private int position;
+
+  private MappedProblemReader(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.limit = buffer.limit();
+    this.position = buffer.position();
+  }
+
+  public static Problem read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("Instance file %s is too large to map.", path));
+      }
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+      return new MappedProblemReader(buffer).parse();
+    }
+  }
+
+  public static Problem read(ByteBuffer buffer) throws IOException {
+    return new MappedProblemReader(buffer).parse();
+  }
+
+  private Problem parse() throws IOException {
+    int vehicleNum = nextInt();
+    int trackNum = nextInt();
+    int[] vehicleLengths = nextInts(vehicleNum);
+    int[] series = nextInts(vehicleNum);
+
+    // limitation equals 1 if car "i" can be placed on track "j"
+    int words = Bits.words(vehicleNum);
+    long[] allowed = new long[trackNum * words];
+    for (int i = 0; i < vehicleNum; i++) {
+      for (int j = 0; j < trackNum; j++) {
+        if (nextInt() == 1) {
+          allowed[j * words + (i >>> 6)] |= 1L << i;
+        }
+      }
+    }
+
+    int[] trackLengths = nextInts(trackNum);
+    int[] departureTimes = nextInts(vehicleNum);
+    int[] layoutTypes = nextInts(vehicleNum);
+
+    // fmt: "blockingTrack listOfBlockedTracks"
+    Map<Integer, Collection<Integer>> blockades = new HashMap<>();
+    Map<Integer, Collection<Integer>> inverseBlockades = new HashMap<>();
+    while (skipWhitespace(true)) {
+      int currentTrackId = nextInt();
+      Collection<Integer> blocks =
+          blockades.computeIfAbsent(currentTrackId, k -> new HashSet<>());
+      while (skipWhitespace(false)) {
+        int blockedTrackId = nextInt();
+        blocks.add(blockedTrackId);
+        inverseBlockades.computeIfAbsent(blockedTrackId, k -> new HashSet<>())
+            .add(currentTrackId);
+      }
+    }
+
+    return new Problem(vehicleLengths, series, departureTimes, layoutTypes, trackLengths, allowed,
+        Adjacency.fromIds(trackNum, blockades), Adjacency.fromIds(trackNum, inverseBlockades));
+  }
+
+  private int[] nextInts(int n) throws IOException {
+    int[] result = new int[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = nextInt();
+    }
+    return result;
+  }
+
+  private int nextInt() throws IOException {
+    if (!skipWhitespace(true)) {
+      throw new IOException("Unexpected end of instance file.");
+    }
+
+    boolean negative = buffer.get(position) == '-';
+    if (negative) {
+      position++;
+    }
+
+    int start = position;
+    int value = 0;
+    while (position < limit) {
+      int digit = buffer.get(position) - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      value = value * 10 + digit;
+      position++;
+    }
+
+    if (position == start) {
+      throw new IOException(position < limit
+          ? String.format(
+              "Expected a number at byte %s, got '%s'.", position, (char) buffer.get(position))
+          : "Unexpected end of instance file.");
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Moves to the next token, skipping comments.
+   *
+   * @param crossLines whether line breaks may be skipped as well
+   * @return true if there is a token to read before the end of input (or line).
+   */
+  private boolean skipWhitespace(boolean crossLines) {
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == '#') {
+        while (position < limit && buffer.get(position) != '\n') {
+          position++;
+        }
+      } else if (b == '\n') {
+        if (!crossLines) {
+          return false;
+        }
+        position++;
+      } else if (b == ' ' || b == '\t' || b == '\r') {
+        position++;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+}
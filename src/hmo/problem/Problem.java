@@ -1,30 +1,96 @@
 package hmo.problem;
 
+import hmo.common.Bits;
 import hmo.instance.TrackInstance;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Problem definition. Data is kept in flat, index-based arrays (index is ID - 1) for hot loops,
+ * with the {@link Vehicle} and {@link Track} object API on top of it.
+ */
 public class Problem {
   private List<Track> tracks;
   private List<Vehicle> vehicles;
-  private Map<Integer, Collection<Integer>> trackBlocksTracks;
-  private Map<Integer, Collection<Integer>> trackBlockedByTracks;
   private int totalTrackLength;
   private int totalVehicleLength;
 
+  private int[] vehicleLengths;
+  private int[] vehicleSeries;
+  private int[] vehicleDepartures;
+  private int[] vehicleLayoutTypes;
+  private int[] trackLengths;
+  private Adjacency blocks;
+  private Adjacency blockedBy;
+
+  // vehicle-track compatibility by index (ID - 1), kept both ways as flat bit matrices:
+  // nTracks rows of vehicleWords words, and nVehicles rows of trackWords words.
+  private int vehicleWords;
+  private int trackWords;
+  private long[] trackAllowsVehicles;
+  private long[] vehicleAllowedOnTracks;
+
   public Problem(List<Track> tracks, List<Vehicle> vehicles,
       Map<Integer, Collection<Integer>> trackBlocksTracks,
       Map<Integer, Collection<Integer>> trackBlockedByTracks) {
     this.tracks = tracks;
     this.vehicles = vehicles;
-    this.trackBlocksTracks = trackBlocksTracks;
-    this.trackBlockedByTracks = trackBlockedByTracks;
+    this.vehicleLengths = vehicles.stream().mapToInt(Vehicle::getVehicleLength).toArray();
+    this.vehicleSeries = vehicles.stream().mapToInt(Vehicle::getSeries).toArray();
+    this.vehicleDepartures = vehicles.stream().mapToInt(Vehicle::getDeparture).toArray();
+    this.vehicleLayoutTypes = vehicles.stream().mapToInt(Vehicle::getLayoutType).toArray();
+    this.trackLengths = tracks.stream().mapToInt(Track::getTrackLength).toArray();
+    this.blocks = Adjacency.fromIds(tracks.size(), trackBlocksTracks);
+    this.blockedBy = Adjacency.fromIds(tracks.size(), trackBlockedByTracks);
+
+    this.vehicleWords = Bits.words(vehicles.size());
+    this.trackAllowsVehicles = new long[tracks.size() * vehicleWords];
+    for (int j = 0; j < tracks.size(); j++) {
+      long[] allowed = tracks.get(j).getAllowedVehicles();
+      System.arraycopy(allowed, 0, trackAllowsVehicles, j * vehicleWords,
+          Math.min(allowed.length, vehicleWords));
+    }
+    init();
+  }
+
+  /**
+   * @param trackAllowsVehicles nTracks rows of {@code Bits.words(nVehicles)} words, bit i of row
+   *     j is set if vehicle with index i can be parked on track with index j
+   */
+  public Problem(int[] vehicleLengths, int[] vehicleSeries, int[] vehicleDepartures,
+      int[] vehicleLayoutTypes, int[] trackLengths, long[] trackAllowsVehicles,
+      Adjacency blocks, Adjacency blockedBy) {
+    this.vehicleLengths = vehicleLengths;
+    this.vehicleSeries = vehicleSeries;
+    this.vehicleDepartures = vehicleDepartures;
+    this.vehicleLayoutTypes = vehicleLayoutTypes;
+    this.trackLengths = trackLengths;
+    this.blocks = blocks;
+    this.blockedBy = blockedBy;
+    this.vehicleWords = Bits.words(vehicleLengths.length);
+    this.trackAllowsVehicles = trackAllowsVehicles;
+
+    this.vehicles = new ArrayList<>(vehicleLengths.length);
+    for (int i = 0; i < vehicleLengths.length; i++) {
+      vehicles.add(new Vehicle(i + 1, vehicleLengths[i], vehicleSeries[i],
+          vehicleDepartures[i], vehicleLayoutTypes[i]));
+    }
+    this.tracks = new ArrayList<>(trackLengths.length);
+    for (int j = 0; j < trackLengths.length; j++) {
+      tracks.add(new Track(j + 1, trackLengths[j], Arrays.copyOfRange(
+          trackAllowsVehicles, j * vehicleWords, (j + 1) * vehicleWords)));
+    }
+    init();
+  }
+
+  private void init() {
     setTotalTrackLength();
     setTotalVehicleLength();
+    setCompatibility();
   }
 
   public List<Track> getTracks() {
@@ -35,17 +101,58 @@ public class Problem {
     return vehicles;
   }
 
+  public int getNumVehicles() {
+    return vehicleLengths.length;
+  }
+
+  public int getNumTracks() {
+    return trackLengths.length;
+  }
+
+  // flat views by index (ID - 1). callers must not modify the returned arrays.
+
+  public int[] getVehicleLengths() {
+    return vehicleLengths;
+  }
+
+  public int[] getVehicleSeries() {
+    return vehicleSeries;
+  }
+
+  public int[] getVehicleDepartures() {
+    return vehicleDepartures;
+  }
+
+  public int[] getVehicleLayoutTypes() {
+    return vehicleLayoutTypes;
+  }
+
+  public int[] getTrackLengths() {
+    return trackLengths;
+  }
+
+  /** @return track index to indices of tracks which it blocks. */
+  public Adjacency getBlocksGraph() {
+    return blocks;
+  }
+
+  /** @return track index to indices of tracks which block it. */
+  public Adjacency getBlockedByGraph() {
+    return blockedBy;
+  }
+
+  /** @return unmodifiable view of IDs of tracks blocked by track with the given ID. */
   public Collection<Integer> getBlocks(int trackId) {
-    return trackBlocksTracks.getOrDefault(trackId, new HashSet<>());
+    return blocks.neighbourIds(trackId);
   }
 
   public Stream<Track> getBlocks(Track track) {
-    Collection<Integer> blocks = trackBlocksTracks.getOrDefault(track.getId(), new HashSet<>());
-    return blocks.stream().map(i -> tracks.get(i - 1));
+    return getBlocks(track.getId()).stream().map(i -> tracks.get(i - 1));
   }
 
+  /** @return unmodifiable view of IDs of tracks blocking track with the given ID. */
   public Collection<Integer> getBlockedBy(int trackId) {
-    return trackBlockedByTracks.getOrDefault(trackId, new HashSet<>());
+    return blockedBy.neighbourIds(trackId);
   }
 
   public Stream<Track> getBlockedBy(Track track) {
@@ -58,27 +165,100 @@ public class Problem {
     int fstId = first.getTrack().getId();
     int sndId = second.getTrack().getId();
 
-    if (getBlocks(fstId).contains(sndId)) {
+    if (blocks.contains(fstId - 1, sndId - 1)) {
       return second;
     }
-    if (getBlocks(sndId).contains(fstId)) {
+    if (blocks.contains(sndId - 1, fstId - 1)) {
       return first;
     }
     return null;
   }
 
+  /** @return whether the vehicle with index vehicleIdx can be parked on track trackIdx. */
+  public boolean isAllowed(int vehicleIdx, int trackIdx) {
+    return Bits.get(vehicleAllowedOnTracks, vehicleIdx * trackWords, trackIdx);
+  }
+
+  public boolean isAllowed(Vehicle vehicle, Track track) {
+    return isAllowed(vehicle.getId() - 1, track.getId() - 1);
+  }
+
+  /** @return whether every given vehicle can be parked on the track. */
+  public boolean allAllowed(Collection<Vehicle> vehicles, Track track) {
+    int offset = (track.getId() - 1) * vehicleWords;
+    for (Vehicle vehicle : vehicles) {
+      if (!Bits.get(trackAllowsVehicles, offset, vehicle.getId() - 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return bitset of track indices on which every given vehicle can be parked. */
+  public long[] tracksAllowedForAll(Collection<Vehicle> vehicles) {
+    long[] result = Bits.allSet(tracks.size());
+    for (Vehicle vehicle : vehicles) {
+      Bits.and(result, vehicleAllowedOnTracks, (vehicle.getId() - 1) * trackWords);
+    }
+    return result;
+  }
+
+  /** @return bitset of vehicle indices which can be parked on every given track. */
+  public long[] vehiclesAllowedOnAll(Collection<Track> tracks) {
+    long[] result = Bits.allSet(vehicles.size());
+    for (Track track : tracks) {
+      Bits.and(result, trackAllowsVehicles, (track.getId() - 1) * vehicleWords);
+    }
+    return result;
+  }
+
+  /** @return bitset of track indices on which the vehicle can be parked. */
+  public long[] tracksAllowedFor(Vehicle vehicle) {
+    int offset = (vehicle.getId() - 1) * trackWords;
+    return Arrays.copyOfRange(vehicleAllowedOnTracks, offset, offset + trackWords);
+  }
+
+  /** @return w-th word of {@link #tracksAllowedFor}, for the vehicle index, without copying. */
+  public long tracksAllowedForWord(int vehicleIdx, int w) {
+    return vehicleAllowedOnTracks[vehicleIdx * trackWords + w];
+  }
+
+  /** @return nTracks rows of vehicle bitsets, see {@link #isAllowed}. Must not be modified. */
+  long[] getTrackAllowsVehicles() {
+    return trackAllowsVehicles;
+  }
+
+  private void setCompatibility() {
+    int nVehicles = vehicleLengths.length;
+    int nTracks = trackLengths.length;
+    trackWords = Bits.words(nTracks);
+    vehicleAllowedOnTracks = new long[nVehicles * trackWords];
+
+    for (int j = 0; j < nTracks; j++) {
+      int offset = j * vehicleWords;
+      for (int w = 0; w < vehicleWords; w++) {
+        long word = trackAllowsVehicles[offset + w];
+        while (word != 0) {
+          int i = (w << 6) + Long.numberOfTrailingZeros(word);
+          vehicleAllowedOnTracks[i * trackWords + (j >>> 6)] |= 1L << j;
+          word &= word - 1;
+        }
+      }
+    }
+  }
+
   private void setTotalTrackLength() {
     int len = 0;
-    for (Track track : tracks) {
-      len += track.getTrackLength();
+    for (int trackLength : trackLengths) {
+      len += trackLength;
     }
     this.totalTrackLength = len;
   }
 
   private void setTotalVehicleLength() {
     int len = 0;
-    for (Vehicle vehicle : vehicles) {
-      len += vehicle.getVehicleLength();
+    for (int vehicleLength : vehicleLengths) {
+      len += vehicleLength;
     }
     this.totalVehicleLength = len;
   }
@@ -0,0 +1,110 @@
+package hmo.problem;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Original line-based instance parser. Kept as a reference implementation for
+ * {@link MappedProblemReader}, which should be used everywhere else.
+ */
+public final class ScannerProblemReader {
+
+  private ScannerProblemReader() {}
+
+  public static Problem read(Reader reader) {
+    List<Vehicle> vehicles = new ArrayList<>();
+    List<Track> tracks = new ArrayList<>();
+    Map<Integer, Collection<Integer>> blockades = new HashMap<>();
+    Map<Integer, Collection<Integer>> inverseBlockades = new HashMap<>();
+
+    try (Scanner in = new Scanner(reader)) {
+      int vehicleNum = Integer.parseInt(in.nextLine().trim());
+      int trackNum = Integer.parseInt(in.nextLine().trim());
+
+      in.nextLine();
+      String[] vehicleLengths = in.nextLine().trim().split(" ");
+
+      in.nextLine();
+      String[] series = in.nextLine().trim().split(" ");
+
+      in.nextLine();
+      Map<Integer, Set<Integer>> trackIdToVehicleIds = new HashMap<>();
+      for (int i = 0; i < vehicleNum; i++) {
+        final int vehicleId = i + 1;
+        // limitation equals 1 if car "i" can be placed on track "j"
+        List<Integer> limitation = Arrays.stream(in.nextLine().split(" "))
+            .map(Integer::parseInt).collect(Collectors.toList());
+        assert limitation.size() == trackNum;
+        IntStream.range(1, limitation.size() + 1)
+            .forEach(trackId -> {
+              if (limitation.get(trackId - 1) == 1) {
+                Set<Integer> vehicleIds = trackIdToVehicleIds
+                    .getOrDefault(trackId, new HashSet<>());
+                vehicleIds.add(vehicleId);
+                trackIdToVehicleIds.put(trackId, vehicleIds);
+              }
+            });
+      }
+
+      in.nextLine();
+      String[] trackLengths = in.nextLine().trim().split(" ");
+      in.nextLine();
+      String[] departureTimes = in.nextLine().trim().split(" ");
+      in.nextLine();
+      String[] layoutTypes = in.nextLine().trim().split(" ");
+      in.nextLine();
+
+      // fmt: "blockingTrack listOfBlockedTracks"
+      while (in.hasNext()) {
+        String[] lines = in.nextLine().trim().split(" ");
+        if (lines.length > 0 && !lines[0].isEmpty() && !lines[0].equals("#")) {
+          Collection<Integer> blocks = new HashSet<>();
+          int currentTrackId = Integer.parseInt(lines[0]);
+
+          for (int i = 1; i < lines.length; i++) {
+            int blockedTrackId = Integer.parseInt(lines[i]);
+            blocks.add(blockedTrackId);
+
+            Collection<Integer> inverseList = inverseBlockades
+                .getOrDefault(blockedTrackId, new HashSet<>());
+            inverseList.add(currentTrackId);
+            inverseBlockades.put(blockedTrackId, inverseList);
+          }
+
+          blockades.put(currentTrackId, blocks);
+        }
+      }
+
+      for (int i = 0; i < vehicleNum; i++) {
+        int len = Integer.parseInt(vehicleLengths[i]);
+        int ser = Integer.parseInt(series[i]);
+        int dep = Integer.parseInt(departureTimes[i]);
+        int lay = Integer.parseInt(layoutTypes[i]);
+        int vehicleId = i + 1;
+        vehicles.add(new Vehicle(vehicleId, len, ser, dep, lay));
+      }
+
+      for (int i = 0; i < trackNum; i++) {
+        int len = Integer.parseInt(trackLengths[i].trim());
+        int trackId = i + 1;
+        tracks.add(new Track(trackId, len,
+            trackIdToVehicleIds.getOrDefault(trackId, new HashSet<>())));
+      }
+
+      assert vehicles.size() == vehicleNum;
+      assert tracks.size() == trackNum;
+    }
+
+    return new Problem(tracks, vehicles, blockades, inverseBlockades);
+  }
+}
@@ -1,6 +1,6 @@
 package hmo.problem;
 
-import java.util.Collections;
+import hmo.common.Bits;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -9,22 +9,53 @@ public class Track {
 
   private int id;
   private int trackLength;
+  // bit (vehicleId - 1) is set if the vehicle can be parked on this track
+  private long[] allowedVehicles;
   private Set<Integer> allowedVehicleIds;
 
   public Track(int id, int trackLength, Set<Integer> allowedVehicleIds) {
+    this(id, trackLength, toWords(allowedVehicleIds));
+  }
+
+  public Track(int id, int trackLength, long[] allowedVehicles) {
     this.id = id;
     this.trackLength = trackLength;
-    this.allowedVehicleIds = Collections.unmodifiableSet(allowedVehicleIds);
+    this.allowedVehicles = allowedVehicles;
+    this.allowedVehicleIds = Bits.asIdSet(allowedVehicles);
+  }
+
+  private static long[] toWords(Set<Integer> vehicleIds) {
+    int maxId = vehicleIds.stream().mapToInt(i -> i).max().orElse(0);
+    long[] words = new long[Bits.words(maxId)];
+    for (int vehicleId : vehicleIds) {
+      Bits.set(words, vehicleId - 1);
+    }
+    return words;
   }
 
   public int getId() {
     return id;
   }
 
+  /** @return unmodifiable view of the vehicle IDs; prefer {@link #allows} for lookups. */
   public Set<Integer> getAllowedVehicleIds() {
     return allowedVehicleIds;
   }
 
+  /** @return words of the bitset of allowed vehicle indices. Must not be modified. */
+  long[] getAllowedVehicles() {
+    return allowedVehicles;
+  }
+
+  public boolean allows(Vehicle vehicle) {
+    return allows(vehicle.getId());
+  }
+
+  public boolean allows(int vehicleId) {
+    int i = vehicleId - 1;
+    return i >= 0 && (i >>> 6) < allowedVehicles.length && Bits.get(allowedVehicles, i);
+  }
+
   public int getTrackLength() {
     return trackLength;
   }
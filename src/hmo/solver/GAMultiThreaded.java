@@ -1,64 +1,67 @@
 package hmo.solver;
 
+import genetic.common.Incumbent;
 import genetic.common.IterationBounds;
-import genetic.common.Pair;
-import genetic.common.PopulationInfo;
-import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.MigrationInfo;
 import genetic.GAMeta;
 import genetic.generator.GARunner;
 import genetic.common.Parameters;
 import genetic.generator.SmarterGenerator;
 import genetic.generator.SolutionInstanceGenerator;
-import hmo.common.Utils;
 import hmo.instance.SolutionInstance;
 import hmo.problem.Problem;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.logging.Logger;
 
 public class GAMultiThreaded {
 
-  public Iterator<Pair<PopulationInfo, SolutionInstance>> solve(
-      Random generatorRandom,
+  private static final Logger LOG = Logger.getLogger(GAMultiThreaded.class.toString());
+
+  private final Incumbent<SolutionInstance> incumbent;
+
+  public GAMultiThreaded() {
+    this(null);
+  }
+
+  /** @param incumbent shared best solution all runs publish to, may be null */
+  public GAMultiThreaded(Incumbent<SolutionInstance> incumbent) {
+    this.incumbent = incumbent;
+  }
+
+  public GAResults solve(
+      long seed,
       Problem problem,
       ExecutorService executorService,
       Parameters ... parameters) {
-    GAMeta meta = new GAMeta();
-
-    SolutionInstanceGenerator generator = new SmarterGenerator(generatorRandom, problem, meta);
-    GARunner runner = new GARunner(generator);
-
-    Stream<Pair<PopulationInfo, Future<UnitAndFitness<SolutionInstance>>>> resultsStream =
-        runner.evaluate(Arrays.asList(parameters))
-            .map(pair -> new Pair<>(pair.first, executorService.submit(pair.second)));
+    return solve(seed, problem, executorService, null, parameters);
+  }
 
-    List<Pair<PopulationInfo, Future<UnitAndFitness<SolutionInstance>>>> results =
-        resultsStream.collect(Collectors.toList());
+  /**
+   * @param seed master seed, from which the runs without a random of their own get theirs
+   * @param migrationInfo how the runs exchange units as islands of an island model, or null for
+   *     independent runs
+   */
+  public GAResults solve(
+      long seed,
+      Problem problem,
+      ExecutorService executorService,
+      MigrationInfo migrationInfo,
+      Parameters ... parameters) {
+    GAMeta meta = new GAMeta();
 
-    return new Iterator<Pair<PopulationInfo, SolutionInstance>>() {
-      @Override
-      public boolean hasNext() {
-        return !results.isEmpty();
-      }
+    SolutionInstanceGenerator generator = new SmarterGenerator(problem, meta);
+    GARunner runner = new GARunner(generator, incumbent);
+    List<Parameters> runs = Parameters.seeded(seed, Arrays.asList(parameters));
 
-      @Override
-      public Pair<PopulationInfo, SolutionInstance> next() {
-        for (Pair<PopulationInfo, Future<UnitAndFitness<SolutionInstance>>> pair : results) {
-          if (pair.second.isDone()) {
-            results.remove(pair);
-            SolutionInstance solutionInstance = Utils.unchecked(pair.second::get).getUnit().getValue();
-            return new Pair<>(pair.first, solutionInstance);
-          }
-        }
-        return null;
-      }
-    };
+    return new GAResults(
+        executorService,
+        migrationInfo == null
+            ? runner.evaluate(runs)
+            : runner.evaluate(runs, migrationInfo),
+        () -> LOG.info(generator.getFitnessCache().toString()));
   }
 }
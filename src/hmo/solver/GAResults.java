@@ -0,0 +1,73 @@
+package hmo.solver;
+
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.Pair;
+import genetic.common.PopulationInfo;
+import hmo.common.Utils;
+import hmo.instance.SolutionInstance;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Results of concurrent GA runs, in the order in which the runs complete. {@link #next()} blocks
+ * until the next run completes, without polling. Meant for a single consumer.
+ *
+ * <p>Closing cancels the runs which are still going, after which there are no more results.
+ */
+public class GAResults implements Iterator<Pair<PopulationInfo, SolutionInstance>>, AutoCloseable {
+
+  private final CompletionService<UnitAndFitness<SolutionInstance>> completionService;
+  private final Map<Future<UnitAndFitness<SolutionInstance>>, PopulationInfo> pending;
+  // run once the last result has been taken
+  private final Runnable whenDone;
+
+  GAResults(
+      ExecutorService executorService,
+      Stream<Pair<PopulationInfo, Callable<UnitAndFitness<SolutionInstance>>>> runs,
+      Runnable whenDone) {
+    this.completionService = new ExecutorCompletionService<>(executorService);
+    this.pending = new HashMap<>();
+    this.whenDone = whenDone;
+    runs.forEach(run -> pending.put(completionService.submit(run.second), run.first));
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !pending.isEmpty();
+  }
+
+  @Override
+  public Pair<PopulationInfo, SolutionInstance> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    Future<UnitAndFitness<SolutionInstance>> future;
+    try {
+      future = completionService.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    PopulationInfo populationInfo = pending.remove(future);
+    if (pending.isEmpty()) {
+      whenDone.run();
+    }
+    return new Pair<>(populationInfo, Utils.unchecked(future::get).getUnit().getValue());
+  }
+
+  /** Cancels the remaining runs, interrupting the ones which have started. */
+  @Override
+  public void close() {
+    pending.keySet().forEach(future -> future.cancel(true));
+    pending.clear();
+  }
+}
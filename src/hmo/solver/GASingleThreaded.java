@@ -14,7 +14,6 @@ import hmo.instance.SolutionInstance;
 import hmo.problem.Problem;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.stream.Stream;
@@ -22,15 +21,15 @@ import java.util.stream.Stream;
 public class GASingleThreaded {
 
   public Iterator<Pair<PopulationInfo, UnitAndFitness<SolutionInstance>>> solve(
-      Random generatorRandom,
+      long seed,
       Problem problem,
       Parameters parameters) {
     GAMeta meta = new GAMeta();
-    SolutionInstanceGenerator generator = new SmarterGenerator(generatorRandom, problem, meta);
+    SolutionInstanceGenerator generator = new SmarterGenerator(problem, meta);
     GARunner runner = new GARunner(generator);
 
     Stream<Pair<PopulationInfo, Future<UnitAndFitness<SolutionInstance>>>> resultsStream =
-        runner.evaluate(Collections.singletonList(parameters))
+        runner.evaluate(Parameters.seeded(seed, Collections.singletonList(parameters)))
             .map(pair -> new Pair<>(pair.first,
                 CompletableFuture.completedFuture(Utils.unchecked(() -> pair.second.call()))));
 
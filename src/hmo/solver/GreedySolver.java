@@ -1,6 +1,6 @@
 package hmo.solver;
 
-import hmo.Evaluator;
+import hmo.IncrementalEvaluator;
 import hmo.instance.SolutionInstance;
 import hmo.problem.Problem;
 import hmo.problem.Track;
@@ -31,8 +31,9 @@ public class GreedySolver extends Solver {
   @Override
   public SolutionInstance solve() {
     solutionInstance.resetVehiclePool();
+    IncrementalEvaluator evaluator = new IncrementalEvaluator(solutionInstance);
 
-    LOG.info("Starting greedy algorithm.");
+    LOG.fine("Starting greedy algorithm.");
     while (!solutionInstance.getVehiclePool().isEmpty()) {
       double val = 0.0;
       Track best = null;
@@ -40,20 +41,25 @@ public class GreedySolver extends Solver {
 
       for (Track track : problem.getTracks()) {
         if (solutionInstance.canAssign(nextVehicle, track)) {
+          int move = solutionInstance.beginMove();
           solutionInstance.assign(nextVehicle, track);
-          Evaluator evaluator = new Evaluator(solutionInstance);
-          if (evaluator.totalGoal() > val) {
-            val = evaluator.totalGoal();
+          double goal = evaluator.totalGoal();
+          if (goal > val) {
+            val = goal;
             best = track;
           }
-          solutionInstance.removeVehicle(track, nextVehicle);
+          solutionInstance.rollback(move);
         }
       }
-      solutionInstance.assign(nextVehicle, best);
+      if (best != null) {
+        solutionInstance.assign(nextVehicle, best);
+      }
     }
 
-    LOG.info("Completed greedy algorithm.");
-    LOG.info(String.format("Assigned %s cars.", solutionInstance.getVehicleInstances().size()));
+    publish(solutionInstance, evaluator.rank());
+    evaluator.detach();
+    LOG.fine("Completed greedy algorithm.");
+    LOG.fine(String.format("Assigned %s cars.", solutionInstance.getVehicleInstances().size()));
     solutionInstance.resetVehiclePool();
     return solutionInstance;
   }
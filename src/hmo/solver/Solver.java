@@ -1,11 +1,14 @@
 package hmo.solver;
 
+import genetic.common.Incumbent;
 import hmo.instance.SolutionInstance;
 import hmo.problem.Problem;
 
 public abstract class Solver {
 
   protected Problem problem;
+  // shared best solution to publish to, may be null
+  protected Incumbent<SolutionInstance> incumbent;
 
   public Solver(Problem problem) {
     this.problem = problem;
@@ -13,4 +16,22 @@ public abstract class Solver {
 
   public abstract SolutionInstance solve();
 
+  /** Makes the solver publish its improvements to the given incumbent. */
+  public Solver publishTo(Incumbent<SolutionInstance> incumbent) {
+    this.incumbent = incumbent;
+    return this;
+  }
+
+  /**
+   * Offers a copy of the solution to the incumbent, if there is one.
+   *
+   * @param rank {@link hmo.Evaluation#rank()} of the solution, which does not overflow like
+   *     the GA's fitness does
+   */
+  protected void publish(SolutionInstance solutionInstance, double rank) {
+    if (incumbent != null) {
+      incumbent.offerCopy(solutionInstance, SolutionInstance::new, rank,
+          getClass().getSimpleName());
+    }
+  }
 }
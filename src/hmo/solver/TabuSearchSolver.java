@@ -0,0 +1,246 @@
+package hmo.solver;
+
+import hmo.Evaluation;
+import hmo.IncrementalEvaluator;
+import hmo.common.Utils;
+import hmo.instance.SolutionInstance;
+import hmo.instance.TrackInstance;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Tabu search over single-vehicle moves (assign, unassign, relocate) and track swaps.
+ *
+ * <p>Each iteration samples a candidate list of moves, scores every one of them by applying it,
+ * reading its score from an {@link IncrementalEvaluator} and rolling it back, and applies the
+ * best one which is not tabu. A vehicle which leaves a track may not return to it for {@code
+ * tenure} iterations, unless that would give a new best solution (aspiration). Tabu state is one
+ * int per (vehicle, track) pair, so memory does not grow with the number of iterations.
+ *
+ * <p>Solutions are ranked by {@link Evaluation#rank()}, the same key as the incumbent: first by
+ * the number of assigned vehicles minus a penalty for blockers, and only then by the total goal.
+ * The GA's fitness is not used, since for large instances its blocker term saturates the double
+ * and hides every other change.
+ */
+public class TabuSearchSolver extends Solver {
+
+  private static final Logger LOG = Logger.getLogger(TabuSearchSolver.class.toString());
+
+  private static final int DEFAULT_ITERATIONS = 2000;
+  private static final int DEFAULT_CANDIDATES = 24;
+  private static final int DEFAULT_TENURE = 10;
+  private static final double SWAP_PROBABILITY = 0.1;
+
+  static final int ASSIGN = 0;
+  static final int UNASSIGN = 1;
+  static final int RELOCATE = 2;
+  static final int SWAP = 3;
+
+  private final SolutionInstance solutionInstance;
+  private final Random random;
+  private final int maxIterations;
+  private final int nCandidates;
+  private final int tenure;
+
+  // by vehicle index * #tracks + track index: first iteration at which the move is allowed again
+  private final int[] tabuUntil;
+  int iteration;
+
+  public TabuSearchSolver(Problem problem, Random random) {
+    this(new SolutionInstance(problem), random);
+  }
+
+  public TabuSearchSolver(SolutionInstance solutionInstance, Random random) {
+    this(solutionInstance, random, DEFAULT_ITERATIONS, DEFAULT_CANDIDATES, DEFAULT_TENURE);
+  }
+
+  public TabuSearchSolver(SolutionInstance solutionInstance, Random random,
+      int maxIterations, int nCandidates, int tenure) {
+    super(solutionInstance.getProblem());
+    this.solutionInstance = solutionInstance;
+    this.random = random;
+    this.maxIterations = maxIterations;
+    this.nCandidates = nCandidates;
+    this.tenure = tenure;
+    this.tabuUntil = new int[problem.getNumVehicles() * problem.getNumTracks()];
+  }
+
+  /** Candidate move; track is the destination, or the first track of a swap. */
+  static class Move {
+    int kind;
+    Vehicle vehicle;
+    Track track;
+    Track otherTrack;
+  }
+
+  /** @return the best solution found; the given solution is left at the last visited one. */
+  @Override
+  public SolutionInstance solve() {
+    IncrementalEvaluator evaluator = new IncrementalEvaluator(solutionInstance);
+    SolutionInstance best = new SolutionInstance(solutionInstance);
+    double bestScore = evaluator.rank();
+    double startScore = bestScore;
+
+    LOG.info("Starting tabu search.");
+    Move candidate = new Move();
+    Move chosen = new Move();
+    for (iteration = 1; iteration <= maxIterations; iteration++) {
+      double chosenScore = Double.NEGATIVE_INFINITY;
+      boolean found = false;
+      for (int c = 0; c < nCandidates; c++) {
+        if (!sample(candidate)) {
+          continue;
+        }
+
+        int move = solutionInstance.beginMove();
+        long before = solutionInstance.fingerprint();
+        boolean applied = apply(candidate);
+        double candidateScore = evaluator.rank();
+        boolean changed = applied && solutionInstance.fingerprint() != before;
+        solutionInstance.rollback(move);
+
+        if (!changed || !(candidateScore > chosenScore)
+            || !isAdmissible(candidate, candidateScore, bestScore)) {
+          continue;
+        }
+        copy(candidate, chosen);
+        chosenScore = candidateScore;
+        found = true;
+      }
+      if (!found) {
+        continue;
+      }
+
+      int move = solutionInstance.beginMove();
+      makeTabu(chosen);
+      apply(chosen);
+      solutionInstance.commit(move);
+
+      if (chosenScore > bestScore) {
+        bestScore = chosenScore;
+        best = new SolutionInstance(solutionInstance);
+        publish(best, bestScore);
+      }
+    }
+    evaluator.detach();
+
+    LOG.info(String.format(
+        "Completed tabu search, score %.4f -> %.4f.", startScore, bestScore));
+    best.resetVehiclePool();
+    return best;
+  }
+
+  /** @return whether a move has been sampled into the given instance. */
+  private boolean sample(Move move) {
+    if (random.nextDouble() < SWAP_PROBABILITY) {
+      move.kind = SWAP;
+      move.vehicle = null;
+      move.track = Utils.randomElement(problem.getTracks(), random);
+      move.otherTrack = Utils.randomElement(problem.getTracks(), random);
+      return move.track != move.otherTrack;
+    }
+
+    Vehicle vehicle = Utils.randomElement(problem.getVehicles(), random);
+    Track current = solutionInstance.getTrack(vehicle);
+    move.vehicle = vehicle;
+    move.otherTrack = current;
+    if (current != null && random.nextBoolean()) {
+      move.kind = UNASSIGN;
+      move.track = null;
+      return true;
+    }
+
+    List<TrackInstance> allowedTracks = solutionInstance.getAllowedTracks(vehicle);
+    TrackInstance destination = Utils.randomElement(allowedTracks, random);
+    if (destination == null || destination.getTrack() == current) {
+      return false;
+    }
+    move.kind = current == null ? ASSIGN : RELOCATE;
+    move.track = destination.getTrack();
+    return true;
+  }
+
+  /** @return whether the move could be applied. */
+  private boolean apply(Move move) {
+    switch (move.kind) {
+      case SWAP:
+        solutionInstance.swapParkedVehicles(move.track, move.otherTrack);
+        return true;
+      case UNASSIGN:
+        solutionInstance.removeVehicle(move.otherTrack, move.vehicle);
+        return true;
+      case RELOCATE:
+        solutionInstance.removeVehicle(move.otherTrack, move.vehicle);
+        return assignIfAllowed(move);
+      default:
+        return assignIfAllowed(move);
+    }
+  }
+
+  /** @return whether the move's vehicle could be assigned to its destination track. */
+  private boolean assignIfAllowed(Move move) {
+    if (!solutionInstance.canAssign(move.vehicle, move.track)) {
+      return false;
+    }
+    solutionInstance.assign(move.vehicle, move.track);
+    return true;
+  }
+
+  /** @return whether the move is not tabu, or would give a new best solution (aspiration). */
+  boolean isAdmissible(Move move, double score, double bestScore) {
+    return !isTabu(move) || score > bestScore;
+  }
+
+  boolean isTabu(Move move) {
+    switch (move.kind) {
+      case SWAP:
+        return isTabu(firstVehicle(move.track), move.otherTrack)
+            || isTabu(firstVehicle(move.otherTrack), move.track);
+      case UNASSIGN:
+        return false;
+      default:
+        return isTabu(move.vehicle, move.track);
+    }
+  }
+
+  private boolean isTabu(Vehicle vehicle, Track track) {
+    return vehicle != null && tabuUntil[index(vehicle, track)] > iteration;
+  }
+
+  /** Forbids vehicles leaving a track to return to it. */
+  void makeTabu(Move move) {
+    if (move.kind == SWAP) {
+      makeTabu(firstVehicle(move.track), move.track);
+      makeTabu(firstVehicle(move.otherTrack), move.otherTrack);
+    } else if (move.otherTrack != null) {
+      makeTabu(move.vehicle, move.otherTrack);
+    }
+  }
+
+  private void makeTabu(Vehicle vehicle, Track track) {
+    if (vehicle != null) {
+      tabuUntil[index(vehicle, track)] = iteration + tenure;
+    }
+  }
+
+  private Vehicle firstVehicle(Track track) {
+    TrackInstance trackInstance = solutionInstance.getInstance(track);
+    return trackInstance.nParkedVehicles() == 0
+        ? null : trackInstance.getParkedVehicles().get(0).getVehicle();
+  }
+
+  private int index(Vehicle vehicle, Track track) {
+    return (vehicle.getId() - 1) * problem.getNumTracks() + track.getId() - 1;
+  }
+
+  private static void copy(Move from, Move to) {
+    to.kind = from.kind;
+    to.vehicle = from.vehicle;
+    to.track = from.track;
+    to.otherTrack = from.otherTrack;
+  }
+}
@@ -0,0 +1,178 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.UnitGenerator;
+import genetic.common.IterationBounds;
+import genetic.common.PopulationInfo;
+import genetic.common.RestartInfo;
+import genetic.common.Termination;
+import hmo.Evaluator;
+import hmo.TestProblems;
+import hmo.instance.SolutionInstance;
+import hmo.instance.VehicleInstance;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeneticAlgorithmTest {
+
+  private static final Logger LOG = Logger.getLogger(GeneticAlgorithmTest.class.toString());
+
+  @Test
+  void parallelOffspringGiveTheSamePopulations() throws IOException {
+    Problem problem = TestProblems.randomProblem(40, 8, new Random(23L));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      GeneticAlgorithm<SolutionInstance> sequential = newGeneticAlgorithm(problem, 5L, null);
+      GeneticAlgorithm<SolutionInstance> parallel = newGeneticAlgorithm(problem, 5L, pool);
+      sequential.iterate();
+      parallel.iterate();
+
+      Population<SolutionInstance> expected = sequential.population();
+      Population<SolutionInstance> actual = parallel.population();
+      Assertions.assertEquals(expected.size(), actual.size());
+      Assertions.assertArrayEquals(
+          Arrays.copyOf(expected.fitness(), expected.size()),
+          Arrays.copyOf(actual.fitness(), actual.size()));
+      for (int i = 0; i < expected.size(); i++) {
+        Assertions.assertEquals(expected.value(i), actual.value(i));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void restartsCountStagnationFromTheLastRestartAndCapGrowth() {
+    // the fitness never improves, so the run restarts every 10 generations
+    RestartInfo restartInfo = new RestartInfo(10, 2, 0, 0, 2, 20);
+    int[][] expectedSizes = {{9, 4}, {15, 8}, {25, 16}, {45, 20}};
+    for (int[] expected : expectedSizes) {
+      GeneticAlgorithm<Double> ga = newRestartingAlgorithm(4, 1, () -> 0.0, restartInfo);
+      ga.stopWhen(Termination.generations(expected[0]));
+      ga.iterate();
+      Assertions.assertEquals(expected[1], ga.population().size(), "after " + expected[0]);
+    }
+  }
+
+  @Test
+  void archiveKeepsFittestDistinctUnits() {
+    // units 0, 0, 1, 1, 2, 2, ..., and no offspring, since every unit is an elite
+    AtomicInteger counter = new AtomicInteger();
+    GeneticAlgorithm<Double> ga = newRestartingAlgorithm(
+        8, 8, () -> (double) (counter.getAndIncrement() / 2), new RestartInfo(5, 3));
+    ga.stopWhen(Termination.generations(6));
+    ga.iterate();
+
+    Population<Double> archive = ga.archive();
+    Set<Double> archived = new HashSet<>();
+    for (int i = 0; i < archive.size(); i++) {
+      archived.add(archive.value(i));
+    }
+    Assertions.assertEquals(new HashSet<>(Arrays.asList(3.0, 2.0, 1.0)), archived);
+    Assertions.assertEquals(3, archive.size());
+  }
+
+  @Test
+  void restartSplitsNewUnitsByShare() {
+    // fresh units are 0, greedy ones 500 and perturbed ones are mutated three times by 1000
+    GeneticAlgorithm<Double> ga = new GeneticAlgorithm<>(
+        new UnitGenerator<>(() -> 0.0),
+        new PopulationInfo(401, 1, 0, 0),
+        new IterationBounds(0, 0),
+        unit -> 0.0,
+        (a, b, random) -> a,
+        (unit, random) -> unit + 1000,
+        new Random(9L),
+        LOG);
+    ga.restartOn(new RestartInfo(10, 5, 0.5, 0.25, 1, 401), random -> 500.0);
+    ga.stopWhen(Termination.generations(10));
+    ga.iterate();
+
+    Population<Double> population = ga.population();
+    // all units were equal, so the archive holds a single one, which comes first
+    Assertions.assertEquals(1, ga.archive().size());
+    Assertions.assertEquals(0.0, population.value(0));
+    int[] counts = new int[3];
+    for (int i = 1; i < population.size(); i++) {
+      double value = population.value(i);
+      counts[value == 3000 ? 0 : value == 500 ? 1 : 2]++;
+      Assertions.assertTrue(value == 3000 || value == 500 || value == 0, "unit " + value);
+    }
+    Assertions.assertEquals(0.5, counts[0] / 400.0, 0.07);
+    Assertions.assertEquals(0.25, counts[1] / 400.0, 0.07);
+    Assertions.assertEquals(0.25, counts[2] / 400.0, 0.07);
+  }
+
+  /** @return algorithm which restarts, with offspring that are plain copies of their parents */
+  private static GeneticAlgorithm<Double> newRestartingAlgorithm(
+      int size, int elitism, Supplier<Double> units, RestartInfo restartInfo) {
+    GeneticAlgorithm<Double> ga = new GeneticAlgorithm<>(
+        new UnitGenerator<>(units),
+        new PopulationInfo(size, elitism, 0, 0),
+        new IterationBounds(0, 0),
+        unit -> unit,
+        (a, b, random) -> a,
+        (unit, random) -> unit,
+        new Random(9L),
+        LOG);
+    ga.restartOn(restartInfo, null);
+    return ga;
+  }
+
+  private static GeneticAlgorithm<SolutionInstance> newGeneticAlgorithm(
+      Problem problem, long seed, ForkJoinPool pool) {
+    GeneticAlgorithm<SolutionInstance> ga = new GeneticAlgorithm<>(
+        new UnitGenerator<>(() -> new SolutionInstance(problem)),
+        new PopulationInfo(12, 1, 0.5, 0.9),
+        new IterationBounds(0, 1),
+        solution -> new Evaluator(solution).fitnessToMaximize(),
+        GeneticAlgorithmTest::crossover,
+        GeneticAlgorithmTest::mutate,
+        new Random(seed),
+        pool,
+        LOG);
+    ga.stopWhen(Termination.generations(30));
+    return ga;
+  }
+
+  /** Fills a copy of a with the vehicles of some of b's tracks. */
+  static SolutionInstance crossover(SolutionInstance a, SolutionInstance b, Random random) {
+    SolutionInstance child = new SolutionInstance(a);
+    for (Track track : child.getProblem().getTracks()) {
+      if (random.nextBoolean()) {
+        for (VehicleInstance parked : b.getInstance(track).getParkedVehicles()) {
+          if (child.canAssign(parked.getVehicle(), track)) {
+            child.assign(parked.getVehicle(), track);
+          }
+        }
+      }
+    }
+    return child;
+  }
+
+  /** Removes a vehicle from a copy and tries to park a few others. */
+  static SolutionInstance mutate(SolutionInstance solution, Random random) {
+    SolutionInstance child = new SolutionInstance(solution);
+    Problem problem = child.getProblem();
+    child.pollUsedVehicle(problem.getTracks().get(random.nextInt(problem.getNumTracks())), random);
+    for (int k = 0; k < 3; k++) {
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getNumVehicles()));
+      Track track = problem.getTracks().get(random.nextInt(problem.getNumTracks()));
+      if (child.canAssign(vehicle, track)) {
+        child.assign(vehicle, track);
+      }
+    }
+    return child;
+  }
+}
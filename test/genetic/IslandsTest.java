@@ -0,0 +1,52 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.MigrationInfo;
+import genetic.common.MigrationInfo.Topology;
+import genetic.common.Unit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IslandsTest {
+
+  @Test
+  void sendsAlongTopology() {
+    List<UnitAndFitness<String>> units =
+        Collections.singletonList(new UnitAndFitness<>(new Unit<>("a"), 1.0));
+
+    Islands<String> ring = new Islands<>(new MigrationInfo(1, 1, Topology.RING), 3);
+    ring.send(2, units, new Random(1L));
+    Assertions.assertEquals(units, ring.receive(0));
+    Assertions.assertTrue(ring.receive(0).isEmpty());
+    Assertions.assertTrue(ring.receive(1).isEmpty());
+
+    Islands<String> full = new Islands<>(new MigrationInfo(1, 1, Topology.FULL), 3);
+    full.send(1, units, new Random(1L));
+    Assertions.assertEquals(units, full.receive(0));
+    Assertions.assertTrue(full.receive(1).isEmpty());
+    Assertions.assertEquals(units, full.receive(2));
+
+    Islands<String> random = new Islands<>(new MigrationInfo(1, 1, Topology.RANDOM), 3);
+    for (int i = 0; i < 20; i++) {
+      random.send(1, units, new Random(i));
+      Assertions.assertTrue(random.receive(1).isEmpty());
+      Assertions.assertEquals(1, random.receive(0).size() + random.receive(2).size());
+    }
+  }
+
+  @Test
+  void keepsOnlyRecentUnitsOfSlowIslands() {
+    Islands<Integer> islands = new Islands<>(new MigrationInfo(1, 2, Topology.FULL), 3);
+    for (int i = 0; i < 10; i++) {
+      islands.send(1, Collections.singletonList(new UnitAndFitness<>(new Unit<>(i), 1.0)), null);
+    }
+
+    // room for one migration from each of the two other islands
+    List<UnitAndFitness<Integer>> received = islands.receive(0);
+    Assertions.assertEquals(4, received.size());
+    Assertions.assertEquals(9, (int) received.get(3).getUnit().getValue());
+  }
+}
@@ -0,0 +1,46 @@
+package genetic;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PopulationTest {
+
+  @Test
+  void topMatchesFullSort() {
+    Random random = new Random(3L);
+    Population<Integer> population = new Population<>(4);
+    int[] top = new int[10];
+    for (int round = 0; round < 50; round++) {
+      population.clear();
+      int n = 1 + random.nextInt(40);
+      double[] fitness = new double[n];
+      for (int i = 0; i < n; i++) {
+        fitness[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(20);
+        population.add(i, fitness[i]);
+      }
+
+      Integer[] sorted = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        sorted[i] = i;
+      }
+      // stable, so ties keep insertion order
+      Arrays.sort(sorted, (a, b) -> Double.compare(key(fitness[b]), key(fitness[a])));
+
+      int k = population.top(10, top);
+      Assertions.assertEquals(Math.min(10, n), k);
+      for (int i = 0; i < k; i++) {
+        Assertions.assertEquals((int) sorted[i], top[i]);
+      }
+      Assertions.assertEquals((int) sorted[0], population.best());
+      Assertions.assertEquals((int) sorted[n - 1], population.worst());
+      Assertions.assertEquals(Arrays.stream(fitness).filter(Double::isFinite).sum(),
+          population.finiteSum(), 1e-9);
+    }
+  }
+
+  private static double key(double fitness) {
+    return Double.isNaN(fitness) ? Double.NEGATIVE_INFINITY : fitness;
+  }
+}
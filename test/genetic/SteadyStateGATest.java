@@ -0,0 +1,101 @@
+package genetic;
+
+import genetic.GeneticAlgorithm.UnitGenerator;
+import genetic.common.IterationBounds;
+import genetic.common.PopulationInfo;
+import genetic.common.Selection;
+import genetic.common.Termination;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SteadyStateGATest {
+
+  private static final Logger LOG = Logger.getLogger(SteadyStateGATest.class.toString());
+
+  private static SteadyStateGA<Double> newSteadyStateGA(
+      ForkJoinPool pool, DoubleUnaryOperator fitness) {
+    return new SteadyStateGA<>(
+        new UnitGenerator<>(() -> ThreadLocalRandom.current().nextDouble()),
+        new PopulationInfo(16, 0, 0.5, 0.9, Selection.Type.TOURNAMENT, 2),
+        new IterationBounds(0, 0),
+        fitness::applyAsDouble,
+        (a, b, random) -> (a + b) / 2 + random.nextGaussian(),
+        (a, random) -> a + random.nextGaussian(),
+        new Random(3L),
+        pool,
+        pool.getParallelism() + 1,
+        LOG);
+  }
+
+  @Test
+  void bestUnitNeverGetsWorse() {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      // a bumpy function, so that most children are worse than their parents
+      DoubleUnaryOperator fitness = x -> -Math.abs(x) + Math.sin(10 * x);
+      double[] maxEvaluated = {Double.NEGATIVE_INFINITY};
+      SteadyStateGA<Double> ga = newSteadyStateGA(pool, x -> {
+        double value = fitness.applyAsDouble(x);
+        synchronized (maxEvaluated) {
+          maxEvaluated[0] = Math.max(maxEvaluated[0], value);
+        }
+        return value;
+      });
+
+      double[] lastBest = {Double.NEGATIVE_INFINITY};
+      ga.stopWhen(new Termination() {
+        @Override
+        public boolean isComplete(
+            int generation, long evaluations, double bestFitness, int lastImprovement) {
+          Assertions.assertTrue(bestFitness >= lastBest[0]);
+          lastBest[0] = bestFitness;
+          return evaluations >= 20_000;
+        }
+      });
+
+      double best = ga.iterate().getFitness();
+      Assertions.assertTrue(best >= lastBest[0]);
+      synchronized (maxEvaluated) {
+        Assertions.assertEquals(maxEvaluated[0], best);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void interruptStopsAllWorkers() throws InterruptedException {
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      AtomicLong evaluations = new AtomicLong();
+      SteadyStateGA<Double> ga = newSteadyStateGA(pool, x -> {
+        evaluations.incrementAndGet();
+        return -Math.abs(x);
+      });
+
+      // runs for five minutes unless interrupted
+      Thread thread = new Thread(ga::iterate);
+      thread.start();
+      while (evaluations.get() < 10_000) {
+        Thread.sleep(1);
+      }
+      thread.interrupt();
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+      Assertions.assertFalse(thread.isAlive());
+
+      Assertions.assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+      long stopped = evaluations.get();
+      Thread.sleep(50);
+      Assertions.assertEquals(stopped, evaluations.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
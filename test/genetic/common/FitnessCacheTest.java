@@ -0,0 +1,55 @@
+package genetic.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FitnessCacheTest {
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    FitnessCache cache = new FitnessCache(2, 1);
+    cache.put(1L, 1.0);
+    cache.put(2L, 2.0);
+    Assertions.assertEquals(1.0, cache.get(1L));
+    cache.put(3L, 3.0);
+
+    Assertions.assertNull(cache.get(2L));
+    Assertions.assertEquals(1.0, cache.get(1L));
+    Assertions.assertEquals(3.0, cache.get(3L));
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(3, cache.getHits());
+    Assertions.assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  void stripesStayBoundedUnderConcurrentUse() throws InterruptedException {
+    FitnessCache cache = new FitnessCache(1 << 8, 4);
+    AtomicInteger wrong = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(new Thread(() -> {
+        for (long i = 0; i < 10_000; i++) {
+          long fingerprint = i % 512;
+          Double fitness = cache.get(fingerprint);
+          if (fitness == null) {
+            cache.put(fingerprint, fingerprint);
+          } else if (fitness != fingerprint) {
+            wrong.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assertions.assertEquals(0, wrong.get());
+    Assertions.assertTrue(cache.size() <= 1 << 8, cache.toString());
+    Assertions.assertEquals(40_000, cache.getHits() + cache.getMisses());
+    Assertions.assertTrue(cache.getHits() > 0, cache.toString());
+  }
+}
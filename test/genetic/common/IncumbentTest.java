@@ -0,0 +1,61 @@
+package genetic.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IncumbentTest {
+
+  @Test
+  void keepsFittestOfConcurrentOffers() throws InterruptedException {
+    Incumbent<Integer> incumbent = new Incumbent<>();
+    Assertions.assertNull(incumbent.get());
+    Assertions.assertFalse(incumbent.offer(-1, Double.NaN, "nan"));
+
+    AtomicInteger copies = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int offset = t;
+      threads.add(new Thread(() -> {
+        for (int i = offset; i < 10_000; i += 4) {
+          int value = i;
+          incumbent.offerCopy(value, v -> {
+            copies.incrementAndGet();
+            return v;
+          }, value, "thread " + offset);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    Assertions.assertEquals(9_999, (int) incumbent.get().getValue());
+    Assertions.assertEquals(9_999.0, incumbent.get().getFitness());
+    Assertions.assertEquals("thread 3", incumbent.get().getSource());
+    Assertions.assertFalse(incumbent.offer(0, 9_999.0, "tie"));
+
+    // only improvements are copied
+    int before = copies.get();
+    Assertions.assertFalse(incumbent.offerCopy(0, v -> {
+      copies.incrementAndGet();
+      return v;
+    }, 1.0, "worse"));
+    Assertions.assertEquals(before, copies.get());
+  }
+
+  @Test
+  void ranksByKeyWhenFitnessOverflows() {
+    Incumbent<Integer> incumbent = new Incumbent<>(value -> value);
+    Assertions.assertTrue(incumbent.offer(1, Double.POSITIVE_INFINITY, "first"));
+    Assertions.assertTrue(incumbent.offer(2, Double.POSITIVE_INFINITY, "better"));
+    Assertions.assertFalse(incumbent.offer(0, Double.POSITIVE_INFINITY, "worse"));
+
+    Assertions.assertEquals(2, (int) incumbent.get().getValue());
+    Assertions.assertEquals(2.0, incumbent.get().getRank());
+    Assertions.assertEquals(Double.POSITIVE_INFINITY, incumbent.get().getFitness());
+  }
+}
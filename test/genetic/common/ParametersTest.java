@@ -0,0 +1,54 @@
+package genetic.common;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParametersTest {
+
+  private static Parameters parameters(Random random) {
+    return new Parameters(new PopulationInfo(10, 1, 0.5, 0.5), new IterationBounds(0, 0), random);
+  }
+
+  private static long firstDraw(Parameters parameters) {
+    return parameters.random.nextLong();
+  }
+
+  @Test
+  void sameMasterSeedGivesSameRuns() {
+    List<Parameters> runs = Arrays.asList(parameters(null), parameters(null), parameters(null));
+    List<Parameters> first = Parameters.seeded(7L, runs);
+    List<Parameters> second = Parameters.seeded(7L, runs);
+    List<Parameters> other = Parameters.seeded(8L, runs);
+
+    long[] draws = new long[runs.size()];
+    for (int i = 0; i < runs.size(); i++) {
+      draws[i] = firstDraw(first.get(i));
+      Assertions.assertEquals(draws[i], firstDraw(second.get(i)));
+      Assertions.assertNotEquals(draws[i], firstDraw(other.get(i)));
+      Assertions.assertNull(runs.get(i).random);
+    }
+    Assertions.assertNotEquals(draws[0], draws[1]);
+    Assertions.assertNotEquals(draws[1], draws[2]);
+  }
+
+  @Test
+  void explicitRandomsAreKeptAndDoNotShiftOtherRuns() {
+    Random explicit = new Random(1L);
+    Parameters withRandom = parameters(explicit);
+    withRandom.steadyState = true;
+    withRandom.termination = Termination.generations(5);
+    withRandom.restartInfo = new RestartInfo(10, 2);
+
+    List<Parameters> seeded = Parameters.seeded(7L, Arrays.asList(parameters(null), withRandom));
+    List<Parameters> unseeded =
+        Parameters.seeded(7L, Arrays.asList(parameters(null), parameters(null)));
+    Assertions.assertSame(explicit, seeded.get(1).random);
+    Assertions.assertTrue(seeded.get(1).steadyState);
+    Assertions.assertSame(withRandom.termination, seeded.get(1).termination);
+    Assertions.assertSame(withRandom.restartInfo, seeded.get(1).restartInfo);
+    Assertions.assertEquals(firstDraw(unseeded.get(0)), firstDraw(seeded.get(0)));
+  }
+}
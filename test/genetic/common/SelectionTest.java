@@ -0,0 +1,65 @@
+package genetic.common;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SelectionTest {
+
+  private static int[] counts(Selection.Type type, double[] fitness, int picks) {
+    Selection selection =
+        Selection.of(new PopulationInfo(fitness.length, 0, 0, 0, type, 2), fitness);
+    Random random = new Random(5L);
+    int[] counts = new int[fitness.length];
+    for (int i = 0; i < picks; i++) {
+      counts[selection.select(random)]++;
+    }
+    return counts;
+  }
+
+  @Test
+  void rouletteIsProportionalToFitness() {
+    double[] fitness = {4, 3, 2, 1, 0, Double.NaN};
+    int[] counts = counts(Selection.Type.ROULETTE, fitness, 100_000);
+    for (int i = 0; i < 4; i++) {
+      Assertions.assertEquals(fitness[i] / 10, counts[i] / 100_000.0, 0.01);
+    }
+    Assertions.assertEquals(0, counts[4]);
+    Assertions.assertEquals(0, counts[5]);
+
+    // nothing to go by, so uniform
+    int[] uniform = counts(Selection.Type.ROULETTE, new double[] {Double.NaN, 0, 0, 0}, 100_000);
+    for (int count : uniform) {
+      Assertions.assertEquals(0.25, count / 100_000.0, 0.01);
+    }
+  }
+
+  @Test
+  void rouletteGivesInfiniteFitnessAllPicks() {
+    double inf = Double.POSITIVE_INFINITY;
+    int[] counts = counts(Selection.Type.ROULETTE, new double[] {5, inf, 1e308, inf, 0}, 100_000);
+    Assertions.assertEquals(0, counts[0] + counts[2] + counts[4]);
+    Assertions.assertEquals(0.5, counts[1] / 100_000.0, 0.01);
+    Assertions.assertEquals(0.5, counts[3] / 100_000.0, 0.01);
+
+    // finite weights whose sum overflows are still proportional
+    int[] large = counts(Selection.Type.ROULETTE, new double[] {1e308, 1e308, 0.5e308}, 100_000);
+    Assertions.assertEquals(0.4, large[0] / 100_000.0, 0.01);
+    Assertions.assertEquals(0.2, large[2] / 100_000.0, 0.01);
+  }
+
+  @Test
+  void rankAndTournamentPreferFitterUnits() {
+    double[] fitness = {Double.NaN, 1, 1e300, 7};
+    int[] rank = counts(Selection.Type.RANK, fitness, 100_000);
+    Assertions.assertEquals(0.4, rank[2] / 100_000.0, 0.01);
+    Assertions.assertEquals(0.3, rank[3] / 100_000.0, 0.01);
+    Assertions.assertEquals(0.2, rank[1] / 100_000.0, 0.01);
+    Assertions.assertEquals(0.1, rank[0] / 100_000.0, 0.01);
+
+    // the fittest wins unless it is not picked twice: 1 - (3/4)^2
+    int[] tournament = counts(Selection.Type.TOURNAMENT, fitness, 100_000);
+    Assertions.assertEquals(7 / 16.0, tournament[2] / 100_000.0, 0.01);
+    Assertions.assertEquals(1 / 16.0, tournament[0] / 100_000.0, 0.01);
+  }
+}
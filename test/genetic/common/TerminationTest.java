@@ -0,0 +1,75 @@
+package genetic.common;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TerminationTest {
+
+  @Test
+  void combinesConditions() {
+    AtomicBoolean cancelled = new AtomicBoolean();
+    Termination termination = Termination.anyOf(
+        Termination.generations(100),
+        Termination.evaluations(1000),
+        Termination.stagnation(10),
+        Termination.target(5.0),
+        Termination.cancelled(cancelled::get));
+    termination.start();
+
+    Assertions.assertFalse(termination.isComplete(50, 500, 1.0, 45));
+    Assertions.assertTrue(termination.isComplete(100, 500, 1.0, 95));
+    Assertions.assertTrue(termination.isComplete(50, 1000, 1.0, 45));
+    Assertions.assertTrue(termination.isComplete(50, 500, 1.0, 40));
+    Assertions.assertTrue(termination.isComplete(50, 500, 5.0, 45));
+    cancelled.set(true);
+    Assertions.assertTrue(termination.isComplete(50, 500, 1.0, 45));
+  }
+
+  @Test
+  void readsTheClockRarelyAndStopsShortlyAfterTheBudget() {
+    // every check stands for a generation of 100 microseconds
+    long[] nanos = {0};
+    int[] reads = {0};
+    Termination termination = Termination.time(50, () -> {
+      reads[0]++;
+      return nanos[0];
+    });
+    termination.start();
+    int checks = 0;
+    while (!termination.isComplete(checks, 0, 0, 0)) {
+      checks++;
+      nanos[0] += 100_000;
+    }
+
+    Assertions.assertTrue(nanos[0] >= 50_000_000);
+    // overruns by at most about one read interval of 10 ms
+    Assertions.assertTrue(nanos[0] <= 60_000_000, "overran by " + (nanos[0] - 50_000_000));
+    Assertions.assertTrue(reads[0] < checks / 10, reads[0] + " reads for " + checks + " checks");
+  }
+
+  @Test
+  void stagnationIgnoresSmallImprovements() {
+    Termination termination = Termination.stagnation(10, 1.0);
+    termination.start();
+    // creeping forward by less than the delta in total
+    for (int generation = 0; generation < 10; generation++) {
+      Assertions.assertFalse(termination.isComplete(generation, 0, 0.05 * generation, generation));
+    }
+    Assertions.assertTrue(termination.isComplete(10, 0, 0.5, 10));
+
+    // a large improvement starts the window anew
+    Assertions.assertFalse(termination.isComplete(11, 0, 5.0, 11));
+    Assertions.assertFalse(termination.isComplete(20, 0, 5.5, 20));
+    Assertions.assertTrue(termination.isComplete(21, 0, 5.5, 21));
+  }
+
+  @Test
+  void cpuTimeIsPerThread() {
+    Assertions.assertFalse(Termination.time(10).isPerThread());
+    Assertions.assertEquals(
+        ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported(),
+        Termination.anyOf(Termination.generations(1), Termination.cpuTime(10)).isPerThread());
+  }
+}
@@ -0,0 +1,63 @@
+package hmo;
+
+import genetic.common.Incumbent;
+import hmo.instance.SolutionInstance;
+import hmo.instance.VehicleInstance;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AnytimeSnapshotsTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void finishWritesTheEndSnapshot() throws IOException {
+    Problem problem = TestProblems.randomProblem(6, 3, new Random(1L));
+    Incumbent<SolutionInstance> incumbent = new Incumbent<>();
+    String prefix = directory.resolve("output").toString();
+    AnytimeSnapshots snapshots = new AnytimeSnapshots(incumbent, solution -> solution, prefix);
+
+    SolutionInstance solution = new SolutionInstance(problem);
+    Assertions.assertTrue(new RestrictionsHelper(solution).getFailedChecks().isEmpty());
+    incumbent.offer(solution, 1.0, "test");
+    snapshots.finish();
+
+    Path end = directory.resolve("output-end.txt");
+    Assertions.assertTrue(Files.exists(end));
+    Assertions.assertEquals(solution.toString() + "\n", new String(Files.readAllBytes(end)));
+  }
+
+  @Test
+  void snapshotFailingItsChecksIsNotWritten() throws IOException {
+    Problem problem = TestProblems.randomProblem(6, 3, new Random(1L));
+    Track track = problem.getTracks().get(0);
+    Vehicle vehicle = problem.getVehicles().get(0);
+    // the same vehicle twice on a track
+    SolutionInstance invalid = new SolutionInstance(problem, Collections.singletonMap(track,
+        Arrays.asList(new VehicleInstance(vehicle, track), new VehicleInstance(vehicle, track))));
+    Assertions.assertFalse(new RestrictionsHelper(invalid).getFailedChecks().isEmpty());
+
+    Incumbent<SolutionInstance> incumbent = new Incumbent<>();
+    String prefix = directory.resolve("output").toString();
+    AnytimeSnapshots snapshots = new AnytimeSnapshots(incumbent, solution -> solution, prefix);
+    // nothing to write yet
+    snapshots.finish();
+    Assertions.assertFalse(Files.exists(directory.resolve("output-end.txt")));
+
+    incumbent.offer(invalid, 1.0, "test");
+    snapshots = new AnytimeSnapshots(incumbent, solution -> solution, prefix);
+    snapshots.finish();
+    Assertions.assertFalse(Files.exists(directory.resolve("output-end.txt")));
+  }
+}
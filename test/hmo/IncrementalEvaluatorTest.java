@@ -0,0 +1,59 @@
+package hmo;
+
+import hmo.instance.SolutionInstance;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalEvaluatorTest {
+
+  @Test
+  void agreesWithEvaluator() throws IOException {
+    Random random = new Random(5L);
+    Problem problem = TestProblems.randomProblem(80, 15, random);
+    SolutionInstance solution = new SolutionInstance(problem);
+    IncrementalEvaluator incremental = new IncrementalEvaluator(solution);
+
+    for (int step = 0; step < 3000; step++) {
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+      int move = solution.beginMove();
+      switch (random.nextInt(6)) {
+        case 0:
+        case 1:
+        case 2:
+          if (solution.canAssign(vehicle, track)) {
+            solution.assign(vehicle, track);
+          }
+          break;
+        case 3:
+          solution.pollUsedVehicle(track, random);
+          break;
+        case 4:
+          solution.swapParkedVehicles(
+              track, problem.getTracks().get(random.nextInt(problem.getTracks().size())));
+          break;
+        default:
+          if (random.nextInt(5) == 0) {
+            solution.removeParkedVehicles(track);
+          }
+      }
+      if (random.nextInt(3) == 0) {
+        solution.rollback(move);
+      } else {
+        solution.commit(move);
+      }
+
+      Evaluator evaluator = new Evaluator(solution);
+      Evaluation evaluation = evaluator.evaluate();
+      Assertions.assertEquals(evaluator.firstGoal(), evaluation.firstGoal());
+      Assertions.assertEquals(evaluator.secondGoal(), evaluation.secondGoal());
+      Assertions.assertEquals(evaluator.totalGoal(), incremental.totalGoal());
+      Assertions.assertEquals(evaluator.fitnessToMaximize(), incremental.fitnessToMaximize());
+    }
+  }
+}
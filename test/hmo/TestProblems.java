@@ -0,0 +1,99 @@
+package hmo;
+
+import hmo.problem.MappedProblemReader;
+import hmo.problem.Problem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/** Problems shared by the tests. */
+public final class TestProblems {
+
+  /** Value ranges of random problems; lower bounds are inclusive, upper bounds exclusive. */
+  public static final class Ranges {
+
+    // small and tightly packed, for the tests
+    public static final Ranges SMALL = new Ranges(2, 8, 3, 10, 30, 100, 3, 1);
+    // roomier tracks and more distinct values, closer to the real instances
+    public static final Ranges LARGE = new Ranges(10, 30, 10, 50, 200, 1000, 10, 3);
+
+    final int minVehicleLength;
+    final int maxVehicleLength;
+    final int nSeries;
+    final int minTrackLength;
+    final int maxTrackLength;
+    final int nDepartures;
+    // every blockerSpacing-th track blocks the nBlocked tracks after it
+    final int blockerSpacing;
+    final int nBlocked;
+
+    public Ranges(int minVehicleLength, int maxVehicleLength, int nSeries, int minTrackLength,
+        int maxTrackLength, int nDepartures, int blockerSpacing, int nBlocked) {
+      this.minVehicleLength = minVehicleLength;
+      this.maxVehicleLength = maxVehicleLength;
+      this.nSeries = nSeries;
+      this.minTrackLength = minTrackLength;
+      this.maxTrackLength = maxTrackLength;
+      this.nDepartures = nDepartures;
+      this.blockerSpacing = blockerSpacing;
+      this.nBlocked = nBlocked;
+    }
+  }
+
+  private TestProblems() {
+  }
+
+  public static Problem randomProblem(int nVehicles, int nTracks, Random random)
+      throws IOException {
+    String instance = randomInstance(nVehicles, nTracks, Ranges.SMALL, random);
+    return MappedProblemReader.read(
+        ByteBuffer.wrap(instance.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  /** @return text of a random problem, in the format of the instance files. */
+  public static String randomInstance(int nVehicles, int nTracks, Ranges ranges, Random random) {
+    StringBuilder builder = new StringBuilder();
+    builder.append(nVehicles).append('\n').append(nTracks).append("\n\n");
+    appendLine(builder, nVehicles, () -> between(ranges.minVehicleLength,
+        ranges.maxVehicleLength, random));
+    builder.append('\n');
+    appendLine(builder, nVehicles, () -> 1 + random.nextInt(ranges.nSeries));
+    builder.append('\n');
+    for (int i = 0; i < nVehicles; i++) {
+      appendLine(builder, nTracks, () -> random.nextInt(4) == 0 ? 0 : 1);
+    }
+    builder.append('\n');
+    appendLine(builder, nTracks, () -> between(ranges.minTrackLength,
+        ranges.maxTrackLength, random));
+    builder.append('\n');
+    appendLine(builder, nVehicles, () -> random.nextInt(ranges.nDepartures));
+    builder.append('\n');
+    appendLine(builder, nVehicles, () -> 1 + random.nextInt(2));
+    builder.append('\n');
+    for (int blocker = 1; blocker < nTracks; blocker += ranges.blockerSpacing) {
+      builder.append(blocker);
+      for (int blocked = blocker + 1; blocked <= Math.min(nTracks, blocker + ranges.nBlocked);
+          blocked++) {
+        builder.append(' ').append(blocked);
+      }
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  private static int between(int min, int max, Random random) {
+    return min + random.nextInt(max - min);
+  }
+
+  private interface IntSource {
+    int next();
+  }
+
+  private static void appendLine(StringBuilder builder, int n, IntSource source) {
+    for (int i = 0; i < n; i++) {
+      builder.append(i == 0 ? "" : " ").append(source.next());
+    }
+    builder.append('\n');
+  }
+}
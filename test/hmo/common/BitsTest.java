@@ -0,0 +1,41 @@
+package hmo.common;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BitsTest {
+
+  @Test
+  void testNextAndPreviousSetBit() {
+    long[] words = new long[Bits.words(200)];
+    for (int i : new int[] { 3, 63, 64, 130 }) {
+      Bits.set(words, i);
+    }
+
+    Assertions.assertEquals(3, Bits.nextSetBit(words, 0));
+    Assertions.assertEquals(63, Bits.nextSetBit(words, 4));
+    Assertions.assertEquals(64, Bits.nextSetBit(words, 64));
+    Assertions.assertEquals(130, Bits.nextSetBit(words, 65));
+    Assertions.assertEquals(-1, Bits.nextSetBit(words, 131));
+    Assertions.assertEquals(130, Bits.prevSetBit(words, 199));
+    Assertions.assertEquals(64, Bits.prevSetBit(words, 129));
+    Assertions.assertEquals(63, Bits.prevSetBit(words, 63));
+    Assertions.assertEquals(-1, Bits.prevSetBit(words, 2));
+    Assertions.assertEquals(4, Bits.cardinality(words));
+  }
+
+  @Test
+  void testIdSet() {
+    long[] words = Bits.allSet(70);
+    Bits.clear(words, 0);
+    Assertions.assertEquals(69, Bits.asIdSet(words).size());
+    Assertions.assertFalse(Bits.asIdSet(words).contains(1));
+    Assertions.assertTrue(Bits.asIdSet(words).contains(70));
+    Assertions.assertFalse(Bits.asIdSet(words).contains(71));
+    Assertions.assertEquals(
+        new HashSet<>(Arrays.asList(2, 3)),
+        Bits.asIdSet(new long[] { 6L }));
+  }
+}
@@ -1,5 +1,23 @@
 package hmo.instance;
 
+import hmo.TestProblems;
+import hmo.common.TrackUtils;
+import hmo.common.Utils;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class SolutionInstanceTest {
@@ -9,4 +27,254 @@ public class SolutionInstanceTest {
 
   }
 
+  @Test
+  void rollbackRestoresSolution() throws IOException {
+    Random random = new Random(7L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance solution = new SolutionInstance(problem);
+
+    for (int round = 0; round < 200; round++) {
+      String before = solution.toString();
+      int nAssigned = solution.getAssignedVehicles().size();
+      HashSet<Vehicle> pool = new HashSet<>(solution.getVehiclePool());
+      SolutionInstance copy = new SolutionInstance(solution);
+
+      int move = solution.beginMove();
+      for (int step = 0; step < 10; step++) {
+        Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+        Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+        switch (random.nextInt(4)) {
+          case 0:
+            if (solution.canAssign(vehicle, track)) {
+              solution.assign(vehicle, track);
+            }
+            break;
+          case 1:
+            solution.pollUsedVehicle(track, random);
+            break;
+          case 2:
+            solution.swapParkedVehicles(
+                track, problem.getTracks().get(random.nextInt(problem.getTracks().size())));
+            break;
+          default:
+            solution.pollUsedVehicles(track, v -> v.getSeries() == 1);
+        }
+      }
+      solution.rollback(move);
+
+      Assertions.assertEquals(before, solution.toString());
+      Assertions.assertEquals(copy.toString(), solution.toString());
+      Assertions.assertEquals(nAssigned, solution.getAssignedVehicles().size());
+      Assertions.assertEquals(pool, new HashSet<>(solution.getVehiclePool()));
+      for (Track track : problem.getTracks()) {
+        Assertions.assertEquals(copy.getInstance(track).getAvailableSpace(),
+            solution.getInstance(track).getAvailableSpace(), 1e-9);
+        Assertions.assertEquals(copy.getInstance(track).getAllowedVehicleSeries(),
+            solution.getInstance(track).getAllowedVehicleSeries());
+      }
+
+      // keep some of the changes, so that later rounds start from fuller solutions
+      move = solution.beginMove();
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      if (solution.canAssign(vehicle, track)) {
+        solution.assign(vehicle, track);
+      }
+      solution.commit(move);
+    }
+  }
+
+  @Test
+  void fingerprintFollowsAssignment() throws IOException {
+    Random random = new Random(17L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance solution = new SolutionInstance(problem);
+    for (int step = 0; step < 200; step++) {
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+      if (solution.canAssign(vehicle, track)) {
+        solution.assign(vehicle, track);
+      }
+    }
+
+    long fingerprint = solution.fingerprint();
+    SolutionInstance copy = new SolutionInstance(solution);
+    Assertions.assertEquals(fingerprint, copy.fingerprint());
+
+    Track track = solution.getAssignedVehicles().iterator().next().getTrack();
+    int move = copy.beginMove();
+    copy.pollUsedVehicle(track, random);
+    Assertions.assertNotEquals(fingerprint, copy.fingerprint());
+    Assertions.assertNotEquals(solution, copy);
+    copy.rollback(move);
+    Assertions.assertEquals(fingerprint, copy.fingerprint());
+    Assertions.assertEquals(solution, copy);
+    Assertions.assertEquals(solution.hashCode(), copy.hashCode());
+
+    // the same assignment, built independently
+    Map<Track, List<VehicleInstance>> tracks = new HashMap<>();
+    for (TrackInstance trackInstance : solution.getTrackInstancesInorder()) {
+      List<VehicleInstance> vehicles = new ArrayList<>();
+      for (VehicleInstance parked : trackInstance.getParkedVehicles()) {
+        vehicles.add(new VehicleInstance(parked.getVehicle(), trackInstance.getTrack()));
+      }
+      tracks.put(trackInstance.getTrack(), vehicles);
+    }
+    SolutionInstance rebuilt = new SolutionInstance(problem, tracks);
+    Assertions.assertEquals(fingerprint, rebuilt.fingerprint());
+    Assertions.assertEquals(solution, rebuilt);
+
+    long recomputed = 0;
+    for (TrackInstance trackInstance : solution.getTrackInstancesInorder()) {
+      List<VehicleInstance> parked = trackInstance.getParkedVehicles();
+      for (int k = 0; k < parked.size(); k++) {
+        recomputed ^= Utils.mix64(((long) parked.get(k).getVehicle().getId() << 40)
+            ^ ((long) (trackInstance.getTrack().getId() - 1) << 20) ^ k);
+      }
+    }
+    Assertions.assertEquals(recomputed, fingerprint);
+  }
+
+  @Test
+  void unassignedVehiclesFollowAssignments() throws IOException {
+    Random random = new Random(11L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance solution = new SolutionInstance(problem);
+    Set<Vehicle> polled = new HashSet<>();
+
+    for (int step = 0; step < 3000; step++) {
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      switch (random.nextInt(5)) {
+        case 0:
+          Vehicle vehicle = solution.pollUnusedVehicle(random);
+          if (vehicle != null) {
+            Assertions.assertTrue(polled.add(vehicle));
+            if (solution.canAssign(vehicle, track)) {
+              solution.assign(vehicle, track);
+              polled.remove(vehicle);
+            }
+          }
+          break;
+        case 1:
+          solution.pollUsedVehicle(track, random);
+          break;
+        case 2:
+          solution.removeParkedVehicles(track);
+          polled.clear();
+          break;
+        case 3:
+          solution.resetVehiclePool();
+          polled.clear();
+          break;
+        default:
+          solution = new SolutionInstance(solution);
+          polled.clear();
+      }
+
+      Set<Vehicle> unassigned = new HashSet<>(problem.getVehicles());
+      solution.getAssignedVehicles().forEach(vi -> unassigned.remove(vi.getVehicle()));
+      Assertions.assertEquals(unassigned, new HashSet<>(solution.getUnassignedVehicles()));
+      Assertions.assertEquals(unassigned.size(), solution.getUnassignedVehicles().size());
+      unassigned.removeAll(polled);
+      Assertions.assertEquals(unassigned, new HashSet<>(solution.getVehiclePool()));
+      for (Vehicle vehicle : problem.getVehicles()) {
+        Assertions.assertEquals(
+            unassigned.contains(vehicle), solution.getVehiclePool().contains(vehicle));
+      }
+    }
+  }
+
+  @Test
+  void trackQueriesFollowAssignments() throws IOException {
+    Random random = new Random(13L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance solution = new SolutionInstance(problem);
+
+    for (int step = 0; step < 2000; step++) {
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+      int move = solution.beginMove();
+      switch (random.nextInt(4)) {
+        case 0:
+        case 1:
+          if (solution.canAssign(vehicle, track)) {
+            solution.assign(vehicle, track);
+          }
+          break;
+        case 2:
+          solution.pollUsedVehicle(track, random);
+          break;
+        default:
+          solution.swapParkedVehicles(
+              track, problem.getTracks().get(random.nextInt(problem.getTracks().size())));
+      }
+      if (random.nextInt(4) == 0) {
+        solution.rollback(move);
+      } else {
+        solution.commit(move);
+      }
+
+      List<TrackInstance> allowed = new ArrayList<>();
+      List<TrackInstance> single = new ArrayList<>();
+      for (TrackInstance trackInstance : solution.getTrackInstancesInorder()) {
+        if (trackInstance.canAdd(vehicle)) {
+          allowed.add(trackInstance);
+        }
+        if (trackInstance.nParkedVehicles() == 1) {
+          single.add(trackInstance);
+        }
+      }
+      Assertions.assertEquals(allowed, solution.getAllowedTracks(vehicle));
+      Assertions.assertEquals(single, solution.getTracksWithASingleVehicle());
+
+      TrackInstance picked = solution.getRandomTrack(random, vehicle.getSeries());
+      if (picked == null) {
+        Assertions.assertTrue(solution.getTrackInstances().stream().noneMatch(
+            ti -> TrackUtils.validSeries(vehicle, ti)));
+      } else {
+        Assertions.assertTrue(TrackUtils.validSeries(vehicle, picked));
+      }
+    }
+  }
+
+  @Test
+  void concurrentCopiesLeaveTheSourceAlone() throws Exception {
+    Random random = new Random(19L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance shared = new SolutionInstance(problem);
+    for (int step = 0; step < 200; step++) {
+      Track track = problem.getTracks().get(random.nextInt(problem.getTracks().size()));
+      Vehicle vehicle = problem.getVehicles().get(random.nextInt(problem.getVehicles().size()));
+      if (shared.canAssign(vehicle, track)) {
+        shared.assign(vehicle, track);
+      }
+    }
+    String before = shared.toString();
+    long fingerprint = shared.fingerprint();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        long seed = random.nextLong();
+        futures.add(executor.submit(() -> {
+          Random threadRandom = new Random(seed);
+          for (int round = 0; round < 500; round++) {
+            SolutionInstance copy = new SolutionInstance(shared);
+            for (Track track : problem.getTracks()) {
+              copy.pollUsedVehicle(track, threadRandom);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Assertions.assertEquals(before, shared.toString());
+    Assertions.assertEquals(fingerprint, shared.fingerprint());
+  }
 }
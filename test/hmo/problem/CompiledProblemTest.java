@@ -0,0 +1,42 @@
+package hmo.problem;
+
+import hmo.TestProblems;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CompiledProblemTest {
+
+  @Test
+  void roundTrip() throws IOException {
+    Path text = Files.createTempFile("hmo-compiled", ".txt");
+    Path compiled = Paths.get(text + CompiledProblem.EXTENSION);
+    try {
+      String instance = TestProblems.randomInstance(
+          130, 17, TestProblems.Ranges.LARGE, new Random(7L));
+      Files.write(text, instance.getBytes(StandardCharsets.US_ASCII));
+      Problem expected = MappedProblemReader.read(text);
+
+      CompiledProblem.write(expected, compiled);
+      ProblemReaderTest.assertSameProblem(expected, CompiledProblem.load(compiled));
+      ProblemReaderTest.assertSameProblem(expected, CompiledProblem.loadOrCompile(text));
+    } finally {
+      Files.deleteIfExists(compiled);
+      Files.deleteIfExists(text);
+    }
+  }
+
+  @Test
+  void rejectsUnknownVersion() {
+    ByteBuffer buffer = ByteBuffer.allocate(16)
+        .putInt(CompiledProblem.MAGIC).putInt(CompiledProblem.VERSION + 1).putInt(0).putInt(0);
+    buffer.flip();
+    Assertions.assertThrows(IOException.class, () -> CompiledProblem.load(buffer));
+  }
+}
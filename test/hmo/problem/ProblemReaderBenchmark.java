@@ -0,0 +1,70 @@
+package hmo.problem;
+
+import hmo.TestProblems;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Compares {@link MappedProblemReader} and {@link CompiledProblem} against
+ * {@link ScannerProblemReader}.
+ *
+ * <p>Usage: {@code ProblemReaderBenchmark [instanceFile | nVehicles nTracks]}. Without an
+ * instance file, a random instance of the given size is generated into a temporary file.
+ */
+public class ProblemReaderBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 10;
+
+  public static void main(String[] args) throws IOException {
+    Path path;
+    if (args.length == 1) {
+      path = Paths.get(args[0]);
+    } else {
+      int nVehicles = args.length > 1 ? Integer.parseInt(args[0]) : 2000;
+      int nTracks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+      path = Files.createTempFile("hmo-benchmark", ".txt");
+      path.toFile().deleteOnExit();
+      String instance = TestProblems.randomInstance(
+          nVehicles, nTracks, TestProblems.Ranges.LARGE, new Random(42L));
+      Files.write(path, instance.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    System.out.format("Instance %s (%d bytes)%n", path, Files.size(path));
+    ProblemReaderTest.assertSameProblem(
+        ScannerProblemReader.read(new FileReader(path.toFile())),
+        MappedProblemReader.read(path));
+
+    double scanner = time(() -> ScannerProblemReader.read(new FileReader(path.toFile())));
+    double mapped = time(() -> MappedProblemReader.read(path));
+    System.out.format("Scanner: %.2f ms%n", scanner);
+    System.out.format("Mapped:  %.2f ms (%.1fx)%n", mapped, scanner / mapped);
+
+    Path compiledPath = Files.createTempFile("hmo-benchmark", CompiledProblem.EXTENSION);
+    compiledPath.toFile().deleteOnExit();
+    CompiledProblem.write(MappedProblemReader.read(path), compiledPath);
+    double compiled = time(() -> CompiledProblem.load(compiledPath));
+    System.out.format("Compiled: %.2f ms (%.1fx)%n", compiled, scanner / compiled);
+  }
+
+  private interface Read {
+    Problem read() throws IOException;
+  }
+
+  /** @return average milliseconds per read. */
+  private static double time(Read read) throws IOException {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      read.read();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      read.read();
+    }
+    return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+  }
+}
@@ -0,0 +1,47 @@
+package hmo.problem;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProblemReaderTest {
+
+  static void assertSameProblem(Problem expected, Problem actual) {
+    Assertions.assertEquals(expected.getVehicles().toString(), actual.getVehicles().toString());
+    Assertions.assertEquals(expected.getTracks().size(), actual.getTracks().size());
+    for (Track track : expected.getTracks()) {
+      Track other = actual.getTracks().get(track.getId() - 1);
+      Assertions.assertEquals(track.getId(), other.getId());
+      Assertions.assertEquals(track.getTrackLength(), other.getTrackLength());
+      Assertions.assertEquals(track.getAllowedVehicleIds(), other.getAllowedVehicleIds());
+      Assertions.assertEquals(
+          new HashSet<>(expected.getBlocks(track.getId())),
+          new HashSet<>(actual.getBlocks(track.getId())));
+      Assertions.assertEquals(
+          new HashSet<>(expected.getBlockedBy(track.getId())),
+          new HashSet<>(actual.getBlockedBy(track.getId())));
+    }
+  }
+
+  @Test
+  void mappedReaderMatchesScannerReader() throws IOException {
+    for (String name : new String[] { "inputs/dummy.txt", "inputs/dummy-lesstracks.txt" }) {
+      Path path = Paths.get(name);
+      Problem expected = ScannerProblemReader.read(new FileReader(path.toFile()));
+      Problem actual = MappedProblemReader.read(path);
+      assertSameProblem(expected, actual);
+    }
+  }
+
+  @Test
+  void trailingMinusIsAnIOException() {
+    ByteBuffer buffer = ByteBuffer.wrap("2\n-".getBytes(StandardCharsets.US_ASCII));
+    Assertions.assertThrows(IOException.class, () -> MappedProblemReader.read(buffer));
+  }
+}
@@ -0,0 +1,67 @@
+package hmo.solver;
+
+import genetic.GeneticAlgorithm.UnitAndFitness;
+import genetic.common.Pair;
+import genetic.common.PopulationInfo;
+import genetic.common.Unit;
+import hmo.instance.SolutionInstance;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GAResultsTest {
+
+  @Test
+  void deliversInCompletionOrderAndCancels() throws InterruptedException {
+    ExecutorService executorService = Executors.newFixedThreadPool(3);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicBoolean interrupted = new AtomicBoolean();
+    PopulationInfo fast = new PopulationInfo(1, 0, 0, 0);
+    PopulationInfo slow = new PopulationInfo(2, 0, 0, 0);
+    PopulationInfo stuck = new PopulationInfo(3, 0, 0, 0);
+
+    Callable<UnitAndFitness<SolutionInstance>> fastRun = () -> result();
+    Callable<UnitAndFitness<SolutionInstance>> slowRun = () -> {
+      release.await();
+      return result();
+    };
+    Callable<UnitAndFitness<SolutionInstance>> stuckRun = () -> {
+      started.countDown();
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+      return result();
+    };
+
+    GAResults results = new GAResults(executorService,
+        Stream.of(new Pair<>(slow, slowRun), new Pair<>(stuck, stuckRun),
+            new Pair<>(fast, fastRun)),
+        () -> done.set(true));
+    Assertions.assertSame(fast, results.next().first);
+    release.countDown();
+    Assertions.assertSame(slow, results.next().first);
+    Assertions.assertTrue(results.hasNext());
+
+    started.await();
+    results.close();
+    Assertions.assertFalse(results.hasNext());
+    Assertions.assertFalse(done.get());
+    executorService.shutdown();
+    executorService.awaitTermination(10, TimeUnit.SECONDS);
+    Assertions.assertTrue(interrupted.get());
+  }
+
+  private static UnitAndFitness<SolutionInstance> result() {
+    return new UnitAndFitness<>(new Unit<>(null), 0.0);
+  }
+}
@@ -0,0 +1,83 @@
+package hmo.solver;
+
+import genetic.common.Incumbent;
+import hmo.Evaluator;
+import hmo.RestrictionsHelper;
+import hmo.TestProblems;
+import hmo.instance.SolutionInstance;
+import hmo.problem.Problem;
+import hmo.problem.Track;
+import hmo.problem.Vehicle;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TabuSearchSolverTest {
+
+  @Test
+  void producesValidSolution() throws IOException {
+    Random random = new Random(3L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance solution =
+        new TabuSearchSolver(new SolutionInstance(problem), random, 300, 16, 8).solve();
+
+    Assertions.assertFalse(solution.getAssignedVehicles().isEmpty());
+    new RestrictionsHelper(solution).getRestrictionChecks().forEach(
+        (name, check) -> Assertions.assertTrue(check.get(), name));
+  }
+
+  @Test
+  void improvesStartingScoreAndPublishesIt() throws IOException {
+    Random random = new Random(5L);
+    Problem problem = TestProblems.randomProblem(60, 12, random);
+    SolutionInstance start = new SolutionInstance(problem);
+    double startScore = Evaluator.rank(start);
+    Incumbent<SolutionInstance> incumbent = new Incumbent<>(Evaluator::rank);
+
+    SolutionInstance solution = new TabuSearchSolver(start, random, 300, 16, 8)
+        .publishTo(incumbent).solve();
+
+    double score = Evaluator.rank(solution);
+    Assertions.assertTrue(score > startScore, score + " <= " + startScore);
+    Assertions.assertEquals(score, incumbent.get().getRank());
+    Assertions.assertEquals(score, incumbent.get().getFitness());
+  }
+
+  @Test
+  void keepsMovesTabuForTenureUnlessTheyImproveTheBest() throws IOException {
+    Problem problem = TestProblems.randomProblem(10, 4, new Random(7L));
+    int tenure = 5;
+    TabuSearchSolver solver =
+        new TabuSearchSolver(new SolutionInstance(problem), new Random(7L), 0, 1, tenure);
+    Vehicle vehicle = problem.getVehicles().get(0);
+    Track from = problem.getTracks().get(0);
+    Track to = problem.getTracks().get(1);
+
+    solver.iteration = 3;
+    solver.makeTabu(move(TabuSearchSolver.RELOCATE, vehicle, to, from));
+    TabuSearchSolver.Move back = move(TabuSearchSolver.RELOCATE, vehicle, from, to);
+    TabuSearchSolver.Move elsewhere = move(TabuSearchSolver.RELOCATE, vehicle, to, from);
+    for (int i = 3; i < 3 + tenure; i++) {
+      solver.iteration = i;
+      Assertions.assertTrue(solver.isTabu(back), "iteration " + i);
+      Assertions.assertFalse(solver.isTabu(elsewhere), "iteration " + i);
+      Assertions.assertFalse(solver.isAdmissible(back, 1.0, 2.0), "iteration " + i);
+      // aspiration
+      Assertions.assertTrue(solver.isAdmissible(back, 3.0, 2.0), "iteration " + i);
+    }
+    solver.iteration = 3 + tenure;
+    Assertions.assertFalse(solver.isTabu(back));
+    Assertions.assertTrue(solver.isAdmissible(back, 1.0, 2.0));
+  }
+
+  private static TabuSearchSolver.Move move(int kind, Vehicle vehicle, Track track,
+      Track otherTrack) {
+    TabuSearchSolver.Move move = new TabuSearchSolver.Move();
+    move.kind = kind;
+    move.vehicle = vehicle;
+    move.track = track;
+    move.otherTrack = otherTrack;
+    return move;
+  }
+}